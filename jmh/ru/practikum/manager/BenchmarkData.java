@@ -0,0 +1,54 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Общие наборы данных для бенчмарков: задачи идут по одной в час, по 30 минут каждая
+final class BenchmarkData {
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    static final Duration TASK_DURATION = Duration.ofMinutes(30);
+
+    private BenchmarkData() {
+    }
+
+    static InMemoryTaskManager newManager(String timeIndex) {
+        switch (timeIndex) {
+            case "interval":
+                return new InMemoryTaskManager(new IntervalTimeIndex());
+            case "paged":
+                return new InMemoryTaskManager(new PagedTimeGrid());
+            default:
+                throw new IllegalArgumentException("Неизвестный индекс времени: " + timeIndex);
+        }
+    }
+
+    static LocalDateTime slot(int index) {
+        return BASE_TIME.plusHours(index);
+    }
+
+    static void fillTasks(TaskManager manager, int count) {
+        for (int i = 0; i < count; i++) {
+            manager.createTask(new Task("Task " + i, "Description " + i, Status.NEW, slot(i), TASK_DURATION));
+        }
+    }
+
+    static int fillEpic(TaskManager manager, int subtaskCount) {
+        return fillEpic(manager, subtaskCount, 0);
+    }
+
+    // Подзадачи занимают слоты начиная с firstSlot, чтобы не пересекаться с уже созданными задачами
+    static int fillEpic(TaskManager manager, int subtaskCount, int firstSlot) {
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        for (int i = 0; i < subtaskCount; i++) {
+            Status status = i % 2 == 0 ? Status.NEW : Status.DONE;
+            manager.createSubtask(new Subtask("Subtask " + i, "Description " + i, status, epicId,
+                    slot(firstSlot + i), TASK_DURATION));
+        }
+        return epicId;
+    }
+}
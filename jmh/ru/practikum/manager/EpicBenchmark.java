@@ -0,0 +1,77 @@
+package ru.practikum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Пересчёт статуса и времени большого эпика
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private InMemoryTaskManager manager;
+    private Epic epic;
+    private Subtask toggled;
+
+    @Setup
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        int epicId = BenchmarkData.fillEpic(manager, size);
+        epic = manager.epics.get(epicId);
+        toggled = manager.getSubtasksByEpicId(epicId).get(0);
+    }
+
+    @Benchmark
+    public Status updateEpicStatus() {
+        manager.updateEpicStatus(epic);
+        return epic.getStatus();
+    }
+
+    @Benchmark
+    public Epic updateEpicTime() {
+        manager.updateEpicTime(epic);
+        return epic;
+    }
+
+    // Полный путь через публичный API: смена статуса подзадачи пересчитывает эпик
+    @Benchmark
+    public Status updateSubtaskStatus() {
+        toggled.setStatus(toggled.getStatus() == Status.NEW ? Status.IN_PROGRESS : Status.NEW);
+        manager.updateSubtask(toggled);
+        return epic.getStatus();
+    }
+
+    @Benchmark
+    public int createSubtaskWithOverlapCheck() {
+        int id = manager.createSubtask(new Subtask("Bench", "Description", Status.NEW, epic.getId(),
+                BenchmarkData.slot(size / 2).plusMinutes(30), BenchmarkData.TASK_DURATION));
+        manager.deleteSubtaskById(id);
+        return id;
+    }
+
+    @Benchmark
+    public List<Subtask> getSubtasksByEpicId() {
+        return manager.getSubtasksByEpicId(epic.getId());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practikum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// Полная запись снимка и холодная загрузка из файла
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBackedTaskManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"CSV", "BINARY"})
+    SnapshotFormat format;
+
+    private File file;
+    private FileBackedTaskManager manager;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("kanban-bench", ".csv").toFile();
+        // Наполняем в памяти и пишем один раз, чтобы не перезаписывать файл size раз
+        InMemoryTaskManager source = new InMemoryTaskManager();
+        BenchmarkData.fillTasks(source, size / 2);
+        BenchmarkData.fillEpic(source, size / 2, size / 2);
+
+        manager = new FileBackedTaskManager(file, format);
+        for (Task task : source.getAllTasks()) {
+            manager.putLoaded(task);
+        }
+        for (Epic epic : source.getAllEpics()) {
+            manager.putLoaded(epic);
+        }
+        for (Subtask subtask : source.getAllSubtasks()) {
+            manager.putLoaded(subtask);
+        }
+        manager.restoreState();
+        manager.save();
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long save() {
+        manager.save();
+        return file.length();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(file);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFileParallel() {
+        return FileBackedTaskManager.loadFromFileParallel(file);
+    }
+}
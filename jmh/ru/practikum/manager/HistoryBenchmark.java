@@ -0,0 +1,53 @@
+package ru.practikum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practikum.model.Task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// История просмотров: повторный просмотр и выдача истории
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    private InMemoryTaskManager manager;
+    private int nextViewed;
+
+    @Setup
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        BenchmarkData.fillTasks(manager, size);
+        for (int id = 1; id <= size; id++) {
+            manager.getTaskById(id);
+        }
+    }
+
+    @Benchmark
+    public Task viewTask() {
+        nextViewed = nextViewed % size + 1;
+        return manager.getTaskById(nextViewed);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return manager.getHistory();
+    }
+}
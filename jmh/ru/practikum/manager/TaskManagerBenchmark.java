@@ -0,0 +1,111 @@
+package ru.practikum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Создание задач с проверкой пересечений и выдача приоритетного списка
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"interval", "paged"})
+    String timeIndex;
+
+    private InMemoryTaskManager manager;
+    private LocalDateTime freeStart;
+    private LocalDateTime busyStart;
+
+    @Setup
+    public void setUp() {
+        manager = BenchmarkData.newManager(timeIndex);
+        BenchmarkData.fillTasks(manager, size);
+        freeStart = BenchmarkData.slot(size / 2).plusMinutes(30);
+        busyStart = BenchmarkData.slot(size / 2).plusMinutes(15);
+    }
+
+    // Вставка в свободное окно посреди расписания и удаление, чтобы размер не рос
+    @Benchmark
+    public int createTaskWithOverlapCheck() {
+        int id = manager.createTask(new Task("Bench", "Description", Status.NEW,
+                freeStart, BenchmarkData.TASK_DURATION));
+        manager.deleteTaskById(id);
+        return id;
+    }
+
+    @Benchmark
+    public boolean createTaskRejectedByOverlap() {
+        try {
+            manager.createTask(new Task("Bench", "Description", Status.NEW,
+                    busyStart, BenchmarkData.TASK_DURATION));
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+
+    // Неделя календаря посреди расписания: O(log n + k) вместо копии всего списка
+    @Benchmark
+    public List<Task> getPrioritizedTasksInRange() {
+        LocalDateTime from = BenchmarkData.slot(size / 2);
+        return manager.getPrioritizedTasks(from, from.plusDays(7));
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasksPage() {
+        return manager.getPrioritizedTasksAfter(null, 20);
+    }
+
+    // Задачи идут по часу с получасовыми окнами: окно находится за один-два поиска в индексе
+    @Benchmark
+    public LocalDateTime findFreeSlotInGap() {
+        return manager.findFreeSlot(BenchmarkData.slot(size / 2), BenchmarkData.TASK_DURATION);
+    }
+
+    // Префикс числа из имени: совпадают десятки задач, остальные не просматриваются
+    @Benchmark
+    public List<Task> searchTasksByPrefix() {
+        return manager.searchTasks("task 42", 20);
+    }
+
+    // Пакет за концом расписания одной проверкой и удаление пакетом, чтобы размер не рос
+    @Benchmark
+    public List<Integer> createAllAndDeleteByIds() {
+        List<Task> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Task("Bench", "Description", Status.NEW,
+                    BenchmarkData.slot(size + i), BenchmarkData.TASK_DURATION));
+        }
+        List<Integer> ids = manager.createAll(batch);
+        manager.deleteByIds(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practikum.server;
+
+import ru.practikum.manager.Managers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный прогон HTTP API: clients виртуальных потоков в цикле создают задачу,
+ * читают её по id и запрашивают приоритетный список (у задач без времени он пуст,
+ * поэтому его размер не растёт с прогоном). Печатает пропускную способность
+ * и перцентили задержки.
+ * <p>
+ * Аргументы: {@code [clients] [seconds] [url]}. Без url поднимается встроенный сервер
+ * поверх {@link Managers#getConcurrent()} на свободном порту.
+ */
+public class HttpLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        HttpTaskServer server = null;
+        String baseUrl;
+        if (args.length > 2) {
+            baseUrl = args[2];
+        } else {
+            server = new HttpTaskServer(Managers.getConcurrent(), 0);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        // Свой пул у HTTP-клиента: исполнитель клиентов закрывается до того, как клиент перестанет нужен
+        HttpClient client = HttpClient.newHttpClient();
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        long[] latencies;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int clientId = i;
+                results.add(executor.submit(() -> runClient(client, baseUrl, clientId, deadline)));
+            }
+            latencies = merge(results);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("клиентов: %d, запросов: %d, запросов/с: %.0f%n",
+                clients, latencies.length, latencies.length / (double) seconds);
+        System.out.printf("задержка, мкс: p50=%d p90=%d p99=%d max=%d%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1000);
+    }
+
+    // Задержки одного клиента в наносекундах
+    private static long[] runClient(HttpClient client, String baseUrl, int clientId, long deadline)
+            throws Exception {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int iteration = 0;
+        while (System.nanoTime() < deadline) {
+            String body = "{\"name\":\"Load " + clientId + "-" + iteration + "\",\"description\":\"Нагрузка\"}";
+            long start = System.nanoTime();
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            long afterCreate = System.nanoTime();
+            String id = created.body().replaceAll("\\D", "");
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/" + id)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            long afterGet = System.nanoTime();
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/prioritized")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            long afterList = System.nanoTime();
+
+            if (count + 3 > latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[count++] = afterCreate - start;
+            latencies[count++] = afterGet - afterCreate;
+            latencies[count++] = afterList - afterGet;
+            iteration++;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long[] merge(List<Future<long[]>> results) throws Exception {
+        List<long[]> parts = new ArrayList<>(results.size());
+        int total = 0;
+        for (Future<long[]> result : results) {
+            long[] part = result.get();
+            parts.add(part);
+            total += part.length;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, merged, offset, part.length);
+            offset += part.length;
+        }
+        return merged;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * fraction))] / 1000;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practikum.events;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Рассылка событий подписчикам. Подписки меняются редко, публикации идут на каждой мутации,
+ * поэтому список подписок копируется при изменении, а публикация его только читает.
+ * Публиковать нужно из одного потока за раз - как и мутации менеджера, которые этим пользуются.
+ */
+public class EventPublisher {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public Subscription subscribe(TaskEventListener listener) {
+        return subscribe(listener, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, OverflowPolicy.DROP);
+    }
+
+    public Subscription subscribe(TaskEventListener listener, int capacity, int maxBatch, OverflowPolicy policy) {
+        if (listener == null || policy == null) {
+            throw new IllegalArgumentException("Слушатель и политика переполнения обязательны");
+        }
+        Subscription subscription = new Subscription(this, listener, capacity, maxBatch, policy);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    // Без подписчиков события не создаются вовсе, и копии задач не снимаются
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void publish(TaskEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.publish(event);
+        }
+    }
+
+    void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practikum.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кольцевой буфер одного производителя и одного потребителя без блокировок.
+ * <p>
+ * Производитель - мутации менеджера, которые уже выполняются по одной, потребитель - поток
+ * подписки. Каждая сторона двигает только свой счётчик; записи tail и head - volatile,
+ * поэтому элемент виден потребителю раньше нового tail, а освобождённая ячейка
+ * производителю - раньше нового head.
+ */
+final class EventRing {
+    private final TaskEvent[] buffer;
+    private final int mask;
+    // Следующая ячейка для чтения (пишет только потребитель)
+    private final AtomicLong head = new AtomicLong();
+    // Следующая ячейка для записи (пишет только производитель)
+    private final AtomicLong tail = new AtomicLong();
+
+    EventRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость буфера должна быть положительной");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new TaskEvent[size];
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    boolean offer(TaskEvent event) {
+        long t = tail.get();
+        if (t - head.get() == buffer.length) {
+            return false;
+        }
+        buffer[(int) (t & mask)] = event;
+        tail.set(t + 1);
+        return true;
+    }
+
+    // Забирает до max событий за один проход и одно продвижение head
+    int drainTo(List<TaskEvent> out, int max) {
+        long h = head.get();
+        int count = (int) Math.min(tail.get() - h, max);
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((h + i) & mask);
+            out.add(buffer[index]);
+            buffer[index] = null;
+        }
+        if (count > 0) {
+            head.set(h + count);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+}
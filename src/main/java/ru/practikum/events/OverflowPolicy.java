@@ -0,0 +1,13 @@
+package ru.practikum.events;
+
+// Что делать, когда буфер подписчика заполнен
+public enum OverflowPolicy {
+    // Менеджер ждёт, пока подписчик освободит место: события не теряются, но медленный
+    // подписчик замедляет изменения. Ожидание идёт внутри мутации, под блокировкой менеджера
+    // (монитор GroupCommitTaskManager, общая блокировка HTTP-сервера), поэтому слушатель
+    // с BLOCK не должен вызывать менеджер: вызов ждал бы ту же блокировку - взаимоблокировка
+    BLOCK,
+    // Событие отбрасывается, а подписчик получает OVERFLOW перед следующей пачкой.
+    // Политика по умолчанию: мутации никогда не ждут подписчика
+    DROP
+}
@@ -0,0 +1,136 @@
+package ru.practikum.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Подписка на события: свой кольцевой буфер и свой виртуальный поток доставки.
+ * <p>
+ * Поток забирает из буфера всё накопленное, но не больше maxBatch событий, и отдаёт
+ * слушателю одной пачкой; пустой буфер - поток спит до следующей публикации.
+ * {@link #close()} доставляет уже опубликованные события и останавливает поток.
+ */
+public class Subscription implements AutoCloseable {
+    private static final long BACKOFF_NANOS = 50_000;
+
+    private final EventPublisher publisher;
+    private final TaskEventListener listener;
+    private final EventRing ring;
+    private final int maxBatch;
+    private final OverflowPolicy policy;
+    private final Thread consumer;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong listenerErrors = new AtomicLong();
+    private volatile boolean consumerWaiting;
+    private volatile boolean closed;
+
+    Subscription(EventPublisher publisher, TaskEventListener listener, int capacity, int maxBatch,
+                 OverflowPolicy policy) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Размер пачки должен быть положительным");
+        }
+        this.publisher = publisher;
+        this.listener = listener;
+        this.ring = new EventRing(capacity);
+        this.maxBatch = maxBatch;
+        this.policy = policy;
+        this.consumer = Thread.ofVirtual().name("task-events").unstarted(this::consume);
+    }
+
+    void start() {
+        consumer.start();
+    }
+
+    // Вызывается производителем; закрытая подписка новых событий не принимает
+    void publish(TaskEvent event) {
+        while (!ring.offer(event)) {
+            if (closed) {
+                return;
+            }
+            if (policy == OverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // BLOCK: будим потребителя и ждём, пока он освободит место. Производитель держит
+            // блокировку менеджера, поэтому слушатель не должен обращаться к менеджеру
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(BACKOFF_NANOS);
+        }
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void consume() {
+        List<TaskEvent> batch = new ArrayList<>(Math.min(maxBatch, ring.capacity()));
+        long reportedDrops = 0;
+        while (true) {
+            batch.clear();
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                batch.add(TaskEvent.overflow());
+                reportedDrops = drops;
+            }
+            ring.drainTo(batch, maxBatch);
+
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                // Флаг выставляется до повторной проверки: публикация после неё увидит флаг и разбудит
+                consumerWaiting = true;
+                if (ring.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+                continue;
+            }
+
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                listenerErrors.incrementAndGet();
+            }
+            delivered.addAndGet(batch.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        publisher.remove(this);
+        LockSupport.unpark(consumer);
+        if (Thread.currentThread() != consumer) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Отброшено при переполнении (только для DROP)
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    public long getDeliveredEvents() {
+        return delivered.get();
+    }
+
+    // Исключение слушателя не останавливает подписку - пачка считается доставленной
+    public long getListenerErrors() {
+        return listenerErrors.get();
+    }
+}
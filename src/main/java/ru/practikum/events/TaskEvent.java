@@ -0,0 +1,98 @@
+package ru.practikum.events;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+/**
+ * Изменение в менеджере задач.
+ * <p>
+ * События создания, изменения и смены статуса эпика несут копию задачи на момент события:
+ * слушатель работает в своём потоке, и читать живые объекты менеджера ему нельзя.
+ * У события удаления есть только id и тип.
+ */
+public final class TaskEvent {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        EPIC_STATUS_CHANGED,
+        // Часть событий отброшена из-за переполнения - производное представление нужно пересобрать
+        OVERFLOW
+    }
+
+    private static final TaskEvent OVERFLOW_EVENT = new TaskEvent(Kind.OVERFLOW, 0, null, null);
+
+    private final Kind kind;
+    private final int taskId;
+    private final TaskType taskType;
+    private final Task task;
+
+    private TaskEvent(Kind kind, int taskId, TaskType taskType, Task task) {
+        this.kind = kind;
+        this.taskId = taskId;
+        this.taskType = taskType;
+        this.task = task;
+    }
+
+    public static TaskEvent created(Task task) {
+        return withCopy(Kind.CREATED, task);
+    }
+
+    public static TaskEvent updated(Task task) {
+        return withCopy(Kind.UPDATED, task);
+    }
+
+    public static TaskEvent epicStatusChanged(Epic epic) {
+        return withCopy(Kind.EPIC_STATUS_CHANGED, epic);
+    }
+
+    public static TaskEvent deleted(Task task) {
+        return new TaskEvent(Kind.DELETED, task.getId(), task.getType(), null);
+    }
+
+    static TaskEvent overflow() {
+        return OVERFLOW_EVENT;
+    }
+
+    private static TaskEvent withCopy(Kind kind, Task task) {
+        Task copy;
+        if (task instanceof Epic) {
+            copy = new Epic((Epic) task);
+        } else if (task instanceof Subtask) {
+            copy = new Subtask((Subtask) task);
+        } else {
+            copy = new Task(task);
+        }
+        return new TaskEvent(kind, task.getId(), task.getType(), copy);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    // null для OVERFLOW
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    // Копия задачи; null для DELETED и OVERFLOW
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "kind=" + kind +
+                ", taskId=" + taskId +
+                ", taskType=" + taskType +
+                '}';
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practikum.events;
+
+import java.util.List;
+
+// Получает события пачками в порядке публикации; список действителен только во время вызова
+@FunctionalInterface
+public interface TaskEventListener {
+
+    void onEvents(List<TaskEvent> events);
+}
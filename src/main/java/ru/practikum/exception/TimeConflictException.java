@@ -0,0 +1,8 @@
+package ru.practikum.exception;
+
+// Задача пересекается по времени с другой; остальные ошибки проверки - обычный IllegalArgumentException
+public class TimeConflictException extends IllegalArgumentException {
+    public TimeConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practikum.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог пакетного изменения: какие id созданы, изменены и удалены.
+ * По нему наследники сохраняют пакет один раз, а не после каждой операции.
+ */
+final class AppliedChanges {
+    // id созданных задач в порядке входного списка
+    final List<Integer> createdIds = new ArrayList<>();
+    // id изменённых задач
+    final List<Integer> updatedIds = new ArrayList<>();
+    // id удалённых задач вместе с подзадачами удалённых эпиков
+    final List<Integer> deletedIds = new ArrayList<>();
+
+    boolean isEmpty() {
+        return createdIds.isEmpty() && updatedIds.isEmpty() && deletedIds.isEmpty();
+    }
+}
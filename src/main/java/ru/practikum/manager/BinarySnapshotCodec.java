@@ -0,0 +1,325 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат снимка.
+ * <p>
+ * Заголовок: 4 байта {@code TMSB} и байт версии. Далее записи до конца файла:
+ * байт типа, int id, байт статуса, две строки (int длины в байтах UTF-8, -1 для null),
+ * int начала в минутах от эпохи, int длительности в минутах и для подзадачи int id эпика.
+ * Отсутствующее время и длительность кодируются {@link Integer#MIN_VALUE}.
+ * <p>
+ * Время хранится с точностью до минуты, как и длительность в CSV: задачу со
+ * стартом, не выровненным по минуте, записать нельзя. Менеджер проверяет это через
+ * {@link #checkStorable(Task)} до изменения памяти, а снимок пишется во временный файл
+ * и подменяет прежний целиком.
+ */
+class BinarySnapshotCodec {
+    static final int MAGIC = 0x544D5342; // "TMSB"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    // Проверка заголовка без чтения остального файла
+    static boolean isBinary(File file) {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // дочитываем заголовок
+            }
+            return header.flip().remaining() == Integer.BYTES && header.getInt() == MAGIC;
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка чтения заголовка файла", e);
+        }
+    }
+
+    // --- Запись ---
+
+    // Ошибка посреди записи не трогает прежний снимок: он заменяется только готовым файлом.
+    // Возвращает CRC32C записанных байтов
+    static long write(File file, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
+        Path tmpFile = Path.of(file.getPath() + ".tmp");
+        try {
+            long checksum = writeRecords(tmpFile, tasks, epics, subtasks);
+            Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return checksum;
+        } catch (IOException e) {
+            deleteQuietly(tmpFile);
+            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmpFile);
+            throw e;
+        }
+    }
+
+    private static long writeRecords(Path target, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.ensure(HEADER_SIZE);
+            writer.buffer.putInt(MAGIC).put(VERSION);
+
+            for (Task task : tasks) {
+                writer.writeTask(task);
+            }
+            for (Epic epic : epics) {
+                writer.writeTask(epic);
+            }
+            for (Subtask subtask : subtasks) {
+                writer.writeTask(subtask);
+            }
+            writer.flush();
+            return writer.crc.getValue();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // недописанный временный файл перезапишется при следующем сохранении
+        }
+    }
+
+    // Задачу, которую формат не может представить, нужно отвергнуть до изменения памяти
+    static void checkStorable(Task task) {
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime != null) {
+            long seconds = startTime.toEpochSecond(ZoneOffset.UTC);
+            if (Math.floorMod(seconds, 60) != 0 || startTime.getNano() != 0) {
+                throw new ManagerSaveException("Двоичный формат хранит время с точностью до минуты: задача "
+                        + task.getId(), null);
+            }
+            long minute = Math.floorDiv(seconds, 60);
+            if (minute <= NO_VALUE || minute > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Время начала вне диапазона двоичного формата: задача "
+                        + task.getId(), null);
+            }
+        }
+        Duration duration = task.getDuration();
+        if (duration != null && (duration.toMinutes() <= NO_VALUE || duration.toMinutes() > Integer.MAX_VALUE)) {
+            throw new ManagerSaveException("Длительность вне диапазона двоичного формата: задача "
+                    + task.getId(), null);
+        }
+    }
+
+    private static class Writer {
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeTask(Task task) throws IOException {
+            byte[] name = bytesOf(task.getName());
+            byte[] description = bytesOf(task.getDescription());
+            ensure(1 + 4 + 1 + 4 + length(name) + 4 + length(description) + 4 + 4 + 4);
+
+            buffer.put((byte) task.getType().ordinal());
+            buffer.putInt(task.getId());
+            buffer.put(task.getStatus() == null ? -1 : (byte) task.getStatus().ordinal());
+            putString(name);
+            putString(description);
+            buffer.putInt(toEpochMinute(task));
+            buffer.putInt(task.getDuration() == null ? NO_VALUE : (int) task.getDuration().toMinutes());
+            if (task instanceof Subtask) {
+                buffer.putInt(((Subtask) task).getEpicId());
+            }
+        }
+
+        private void putString(byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.array(), 0, buffer.limit());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static byte[] bytesOf(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static int toEpochMinute(Task task) {
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime == null) {
+            return NO_VALUE;
+        }
+        checkStorable(task);
+        return (int) Math.floorDiv(startTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    // --- Чтение ---
+
+    static void read(File file, Consumer<Task> consumer) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            if (!reader.ensure(HEADER_SIZE) || reader.buffer.getInt() != MAGIC) {
+                throw new ManagerLoadException("Файл не является двоичным снимком", null);
+            }
+            byte version = reader.buffer.get();
+            if (version != VERSION) {
+                throw new ManagerLoadException("Неподдерживаемая версия двоичного снимка: " + version, null);
+            }
+
+            while (reader.ensure(1)) {
+                consumer.accept(reader.readTask());
+            }
+        } catch (EOFException e) {
+            throw new ManagerLoadException("Двоичный снимок обрезан", e);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка загрузки из файла", e);
+        }
+    }
+
+    private static class Reader {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        Task readTask() throws IOException {
+            require(1 + 4 + 1 + 4);
+            TaskType type = decode(TYPES, buffer.get(), "тип задачи");
+            int id = buffer.getInt();
+            byte statusCode = buffer.get();
+            Status status = statusCode < 0 ? null : decode(STATUSES, statusCode, "статус");
+            String name = readString();
+            String description = readString();
+
+            require(4 + 4);
+            int startMinute = buffer.getInt();
+            int durationMinutes = buffer.getInt();
+            LocalDateTime startTime = startMinute == NO_VALUE ? null
+                    : LocalDateTime.ofEpochSecond(startMinute * 60L, 0, ZoneOffset.UTC);
+            Duration duration = durationMinutes == NO_VALUE ? null : Duration.ofMinutes(durationMinutes);
+
+            switch (type) {
+                case TASK:
+                    Task task = new Task(name, description, status, startTime, duration);
+                    task.setId(id);
+                    return task;
+                case EPIC:
+                    Epic epic = new Epic(name, description);
+                    epic.setId(id);
+                    return epic;
+                case SUBTASK:
+                    require(4);
+                    Subtask subtask = new Subtask(name, description, status, buffer.getInt(), startTime, duration);
+                    subtask.setId(id);
+                    return subtask;
+                default:
+                    throw new IllegalArgumentException("Unknown task type: " + type);
+            }
+        }
+
+        // Повреждённый код не должен превращаться в ArrayIndexOutOfBoundsException
+        private static <T> T decode(T[] values, byte code, String what) {
+            if (code < 0 || code >= values.length) {
+                throw new ManagerLoadException("Неизвестный " + what + " в двоичном снимке: " + code, null);
+            }
+            return values[code];
+        }
+
+        // Строка декодируется прямо из массива буфера, без промежуточной копии
+        private String readString() throws IOException {
+            require(4);
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            require(length);
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (!ensure(bytes)) {
+                throw new EOFException();
+            }
+        }
+
+        // Дочитывает канал, пока в буфере не окажется нужное число байт; false - файл кончился раньше
+        boolean ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes).put(buffer).flip();
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+}
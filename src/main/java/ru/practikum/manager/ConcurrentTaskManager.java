@@ -0,0 +1,455 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.TimeConflictException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасная реализация {@link TaskManager}.
+ * <p>
+ * Чтение идёт без блокировок из конкурентных структур. Изменения задач со временем
+ * проверяются и занимают расписание под одной короткой блокировкой {@code scheduleLock}.
+ * Подзадачи и эпики защищены полосатыми блокировками по id эпика, поэтому изменения
+ * в разных эпиках не мешают друг другу. Порядок захвата: эпик, затем расписание.
+ * Эпики меняются на месте, поэтому наружу и в историю уходят только их копии,
+ * снятые под блокировкой полосы.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int EPIC_LOCK_STRIPES = 64;
+
+    private final ConcurrentMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+    // Агрегаты эпика меняются только под блокировкой его полосы
+    private final ConcurrentMap<Integer, EpicAggregate> epicAggregates = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private final NavigableSet<Task> prioritizedTasks = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Task::getStartTime,
+                    Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Task::getId)
+    );
+    private final TimeIndex timeIndex = new IntervalTimeIndex(new ConcurrentSkipListMap<>());
+    private final Object scheduleLock = new Object();
+    private final Object[] epicLocks = new Object[EPIC_LOCK_STRIPES];
+    private volatile ManagerProbe probe = ManagerProbe.NONE;
+
+    public ConcurrentTaskManager() {
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new Object();
+        }
+    }
+
+    // Наблюдение за проверками пересечений, например декоратором метрик
+    public void setProbe(ManagerProbe probe) {
+        this.probe = probe == null ? ManagerProbe.NONE : probe;
+    }
+
+    private Object epicLock(int epicId) {
+        return epicLocks[Math.floorMod(epicId, EPIC_LOCK_STRIPES)];
+    }
+
+    // --- Расписание: все вызовы только под scheduleLock ---
+
+    private static boolean hasTime(Task task) {
+        return task != null && task.getStartTime() != null;
+    }
+
+    private void occupy(Task task) {
+        prioritizedTasks.add(task);
+        timeIndex.occupy(task.getStartTime(), task.getEndTime());
+    }
+
+    private void free(Task task) {
+        prioritizedTasks.remove(task);
+        timeIndex.release(task.getStartTime(), task.getEndTime());
+    }
+
+    private boolean isFree(Task task) {
+        if (task.getEndTime() == null) {
+            probe.overlapChecked(ManagerProbe.OverlapOutcome.NO_TIME);
+            return true;
+        }
+        boolean free = timeIndex.isFree(task.getStartTime(), task.getEndTime());
+        probe.overlapChecked(free ? ManagerProbe.OverlapOutcome.FREE : ManagerProbe.OverlapOutcome.CONFLICT);
+        return free;
+    }
+
+    // Атомарная замена интервала: при пересечении старый интервал возвращается на место
+    private void reschedule(Task oldTask, Task newTask, String message) {
+        if (hasTime(oldTask)) {
+            free(oldTask);
+        }
+        if (hasTime(newTask) && !isFree(newTask)) {
+            if (hasTime(oldTask)) {
+                occupy(oldTask);
+            }
+            throw new TimeConflictException(message);
+        }
+        if (hasTime(newTask)) {
+            occupy(newTask);
+        }
+    }
+
+    // Замена по id: без времени - без блокировки, если значение никто не сменил; иначе значение
+    // и интервал меняются атомарно под scheduleLock. Удалённый тем временем id не возвращается
+    private <T extends Task> boolean replaceScheduled(ConcurrentMap<Integer, T> map, T task, String message) {
+        int id = task.getId();
+        T current = map.get(id);
+        if (current == null) return false;
+        if (!hasTime(current) && !hasTime(task) && map.replace(id, current, task)) {
+            return true;
+        }
+
+        synchronized (scheduleLock) {
+            return map.computeIfPresent(id, (key, stored) -> {
+                reschedule(stored, task, message);
+                return task;
+            }) != null;
+        }
+    }
+
+    // Удаление по id: задача со временем снимается под scheduleLock вместе со своим интервалом,
+    // чтобы параллельная замена не вернула её и не оставила интервал занятым
+    private <T extends Task> T removeScheduled(ConcurrentMap<Integer, T> map, int id) {
+        T task = map.get(id);
+        if (task == null) return null;
+        if (!hasTime(task) && map.remove(id, task)) {
+            return task;
+        }
+
+        synchronized (scheduleLock) {
+            task = map.remove(id);
+            if (hasTime(task)) {
+                free(task);
+            }
+        }
+        return task;
+    }
+
+    // --- CRUD для задач ---
+    @Override
+    public int createTask(Task task) {
+        if (task == null) return -1;
+
+        if (!hasTime(task)) {
+            task.setId(sequence.incrementAndGet());
+            tasks.put(task.getId(), task);
+            return task.getId();
+        }
+
+        synchronized (scheduleLock) {
+            if (!isFree(task)) {
+                throw new TimeConflictException("Задача пересекается по времени с существующей задачей");
+            }
+            task.setId(sequence.incrementAndGet());
+            tasks.put(task.getId(), task);
+            occupy(task);
+        }
+        return task.getId();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task == null) return;
+
+        replaceScheduled(tasks, task, "Задача пересекается по времени с существующей задачей");
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        Task task = removeScheduled(tasks, id);
+        if (task == null) return;
+        removeFromHistory(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = tasks.get(id);
+        if (task != null) addToHistory(task);
+        return task;
+    }
+
+    // --- CRUD для эпиков ---
+    @Override
+    public int createEpic(Epic epic) {
+        if (epic == null) return -1;
+        epic.setId(sequence.incrementAndGet());
+        epics.put(epic.getId(), epic);
+        return epic.getId();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) return;
+
+        synchronized (epicLock(epic.getId())) {
+            Epic savedEpic = epics.get(epic.getId());
+            if (savedEpic == null) return;
+            savedEpic.setName(epic.getName());
+            savedEpic.setDescription(epic.getDescription());
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        synchronized (epicLock(id)) {
+            Epic epic = epics.remove(id);
+            if (epic == null) return;
+            epicAggregates.remove(id);
+
+            PrimitiveIterator.OfInt subtaskIds = epic.subtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                int subtaskId = subtaskIds.nextInt();
+                removeScheduled(subtasks, subtaskId);
+                removeFromHistory(subtaskId);
+            }
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> result = new ArrayList<>(epics.size());
+        for (Integer id : epics.keySet()) {
+            Epic copy = copyEpic(id);
+            if (copy != null) result.add(copy);
+        }
+        return result;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        // История пишется под блокировкой эпика, иначе удаление эпика может проскочить
+        // между чтением и записью, и удалённый эпик вернётся в историю
+        synchronized (epicLock(id)) {
+            Epic copy = copyEpic(id);
+            if (copy != null) addToHistory(copy);
+            return copy;
+        }
+    }
+
+    // Копия эпика, согласованная с его подзадачами, или null
+    private Epic copyEpic(int id) {
+        synchronized (epicLock(id)) {
+            Epic epic = epics.get(id);
+            return epic != null ? new Epic(epic) : null;
+        }
+    }
+
+    // --- CRUD для подзадач ---
+    @Override
+    public int createSubtask(Subtask subtask) {
+        if (subtask == null) return -1;
+
+        synchronized (epicLock(subtask.getEpicId())) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) return -1;
+
+            if (hasTime(subtask)) {
+                synchronized (scheduleLock) {
+                    if (!isFree(subtask)) {
+                        throw new TimeConflictException("Подзадача пересекается по времени с существующей задачей");
+                    }
+                    subtask.setId(sequence.incrementAndGet());
+                    occupy(subtask);
+                }
+            } else {
+                subtask.setId(sequence.incrementAndGet());
+            }
+
+            subtasks.put(subtask.getId(), subtask);
+            epic.addSubtaskId(subtask.getId());
+            aggregateOf(epic).add(subtask);
+            recalculateEpic(epic);
+        }
+        return subtask.getId();
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null) return;
+
+        Subtask current = subtasks.get(subtask.getId());
+        if (current == null) return;
+
+        synchronized (epicLock(current.getEpicId())) {
+            Subtask oldSubtask = subtasks.get(subtask.getId());
+            if (oldSubtask == null) return;
+            Epic epic = epics.get(oldSubtask.getEpicId());
+            if (epic == null) return;
+
+            if (!replaceScheduled(subtasks, subtask, "Подзадача пересекается по времени с существующей задачей")) {
+                return;
+            }
+            aggregateOf(epic).add(subtask);
+            recalculateEpic(epic);
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        Subtask current = subtasks.get(id);
+        if (current == null) return;
+
+        synchronized (epicLock(current.getEpicId())) {
+            Subtask subtask = removeScheduled(subtasks, id);
+            if (subtask == null) return;
+
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.removeSubtaskId(id);
+                aggregateOf(epic).remove(id);
+                recalculateEpic(epic);
+            }
+        }
+        removeFromHistory(id);
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) addToHistory(subtask);
+        return subtask;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        // Подзадачи читаются под той же блокировкой, что и список id, - иначе между ними
+        // успевает пройти добавление или удаление
+        synchronized (epicLock(epicId)) {
+            Epic epic = epics.get(epicId);
+            if (epic == null) return new ArrayList<>();
+
+            List<Subtask> result = new ArrayList<>(epic.subtaskIds().size());
+            PrimitiveIterator.OfInt subtaskIds = epic.subtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                Subtask sub = subtasks.get(subtaskIds.nextInt());
+                if (sub != null) result.add(sub);
+            }
+            return result;
+        }
+    }
+
+    // --- История: HistoryManager не потокобезопасен, обращаемся под его монитором ---
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    private void addToHistory(Task task) {
+        synchronized (historyManager) {
+            historyManager.add(task);
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    // --- Удаление всех элементов: поэлементно, без глобальной блокировки ---
+    @Override
+    public void deleteTasks() {
+        for (Integer id : tasks.keySet()) {
+            deleteTaskById(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        for (Integer id : subtasks.keySet()) {
+            deleteSubtaskById(id);
+        }
+    }
+
+    @Override
+    public void deleteEpics() {
+        for (Integer id : epics.keySet()) {
+            deleteEpicById(id);
+        }
+    }
+
+    // --- Приоритетные задачи ---
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return new ArrayList<>(prioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return PrioritizedQueries.range(prioritizedTasks, from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(Task cursor, int limit) {
+        return PrioritizedQueries.page(prioritizedTasks, cursor, limit);
+    }
+
+    // Слабо согласованный итератор: обход не блокирует изменения
+    @Override
+    public Iterator<Task> prioritizedTasksIterator() {
+        return PrioritizedQueries.iterator(prioritizedTasks);
+    }
+
+    @Override
+    public boolean containsTask(TaskType type, int id) {
+        switch (type) {
+            case EPIC:
+                return epics.containsKey(id);
+            case SUBTASK:
+                return subtasks.containsKey(id);
+            default:
+                return tasks.containsKey(id);
+        }
+    }
+
+    // Индекс на ConcurrentSkipListMap читается без блокировок; найденное время - подсказка:
+    // пока задача создаётся, его может занять другой поток, и создание отвергнет пересечение.
+    // scheduleAll - реализация по умолчанию, каждая задача создаётся отдельно
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        Scheduling.checkRequest(after, duration);
+        return timeIndex.findFreeSlot(after, duration);
+    }
+
+    // --- Пересчёт эпика: только под блокировкой его полосы ---
+    private EpicAggregate aggregateOf(Epic epic) {
+        return epicAggregates.computeIfAbsent(epic.getId(), id -> new EpicAggregate());
+    }
+
+    private void recalculateEpic(Epic epic) {
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.applyStatus(epic);
+        aggregate.applyTime(epic);
+    }
+}
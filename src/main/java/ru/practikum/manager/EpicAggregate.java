@@ -0,0 +1,96 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.util.IntObjectHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Инкрементальные агрегаты подзадач одного эпика: счётчики по статусам, суммарная
+ * длительность и мультимножества начал и окончаний. Статус эпика пересчитывается за O(1),
+ * время - за O(log k) вместо полного прохода по подзадачам.
+ * <p>
+ * Вклад каждой подзадачи запоминается при добавлении: объект подзадачи могут изменить
+ * снаружи до вызова update, и вычитать нужно то, что было учтено, а не текущие поля.
+ */
+class EpicAggregate {
+    private static final Status[] STATUSES = Status.values();
+
+    private final IntObjectHashMap<Contribution> contributions = new IntObjectHashMap<>();
+    private final int[] statusCounts = new int[STATUSES.length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    private static class Contribution {
+        final Status status;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.start = subtask.getStartTime();
+            this.end = start != null ? subtask.getEndTime() : null;
+            this.duration = start != null ? subtask.getDuration() : null;
+        }
+    }
+
+    void add(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+
+        if (contribution.status != null) statusCounts[contribution.status.ordinal()]++;
+        if (contribution.start != null) increment(starts, contribution.start);
+        if (contribution.end != null) increment(ends, contribution.end);
+        if (contribution.duration != null) totalDuration = totalDuration.plus(contribution.duration);
+    }
+
+    void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+
+        if (contribution.status != null) statusCounts[contribution.status.ordinal()]--;
+        if (contribution.start != null) decrement(starts, contribution.start);
+        if (contribution.end != null) decrement(ends, contribution.end);
+        if (contribution.duration != null) totalDuration = totalDuration.minus(contribution.duration);
+    }
+
+    void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        starts.clear();
+        ends.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    // NEW - если все подзадачи новые (или их нет), DONE - если все завершены, иначе IN_PROGRESS
+    void applyStatus(Epic epic) {
+        int size = contributions.size();
+        if (statusCounts[Status.NEW.ordinal()] == size) epic.setStatus(Status.NEW);
+        else if (statusCounts[Status.DONE.ordinal()] == size) epic.setStatus(Status.DONE);
+        else epic.setStatus(Status.IN_PROGRESS);
+    }
+
+    void applyTime(Epic epic) {
+        epic.setStartTime(starts.isEmpty() ? null : starts.firstKey());
+        epic.setDuration(totalDuration);
+        epic.setEndTime(ends.isEmpty() ? null : ends.lastKey());
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.merge(key, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -7,45 +7,195 @@ import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
 import ru.practikum.model.Task;
 import ru.practikum.model.TaskType;
+import ru.practikum.search.TextIndex;
+import ru.practikum.util.IntLongHashMap;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final SnapshotFormat format;
+    // Ленивый режим: имена и описания остаются в файле, в памяти - индекс смещений и кэш
+    private final LazyTextStore textStore;
+    private static final String CSV_HEADER = "id,type,name,status,description,startTime,duration,epic\n";
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+    // CRC32C снимка на диске, посчитанная при его записи или загрузке; -1 - неизвестна
+    private volatile long snapshotChecksum = -1;
 
     public FileBackedTaskManager(File file) {
+        this(file, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File file, SnapshotFormat format) {
+        this(file, format, null);
+    }
+
+    private FileBackedTaskManager(File file, SnapshotFormat format, LazyTextStore textStore) {
         this.file = file;
+        this.format = format;
+        this.textStore = textStore;
     }
 
+    // На каждую мутацию пишется только снимок; поисковый индекс - по saveSearchIndex()
     protected void save() {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("id,type,name,status,description,startTime,duration,epic\n");
+        writeSnapshot(getAllTasks(), getAllEpics(), getAllSubtasks());
+    }
+
+    // Запись снимка из уже собранных списков - их можно собрать под блокировкой, а писать без неё.
+    // CRC32C считается по байтам по мере записи и возвращается для метки поискового индекса
+    protected long writeSnapshot(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
+        long start = System.nanoTime();
+        // Пока новый снимок не записан, индекс нечем пометить
+        snapshotChecksum = -1;
+        long checksum;
+        if (textStore != null) {
+            checksum = writeLazyCsv(tasks, epics, subtasks);
+        } else if (format == SnapshotFormat.BINARY) {
+            checksum = BinarySnapshotCodec.write(file, tasks, epics, subtasks);
+        } else {
+            checksum = writeCsv(tasks, epics, subtasks);
+        }
+        snapshotChecksum = checksum;
+        probe.persisted(System.nanoTime() - start, file.length());
+        return checksum;
+    }
+
+    /**
+     * Сохраняет поисковый индекс рядом со снимком, в {@code <снимок>.idx}.
+     * Индекс не пишется на каждую мутацию: вызывайте перед завершением работы, чтобы следующая
+     * загрузка прочитала его вместо перестроения. Если снимок ещё не записан или последняя
+     * запись не удалась, ничего не делает.
+     */
+    public void saveSearchIndex() {
+        long checksum = snapshotChecksum;
+        if (checksum != -1) {
+            writeTextIndex(textIndex.image(), checksum);
+        }
+    }
+
+    // Индекс помечается размером и CRC32C снимка: при загрузке индекс от другой версии снимка
+    // не примется и будет построен заново. Время изменения не годится - правка той же длины
+    // в пределах одного тика его не меняет
+    protected void writeTextIndex(TextIndex.Image searchIndex, long checksum) {
+        searchIndex.write(textIndexFile(), file.length(), checksum);
+    }
+
+    private static long checksum(File source) {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // Метка, которой не совпасть ни с одной суммой: индекс просто построится заново
+            return -1;
+        }
+        return crc.getValue();
+    }
+
+    private File textIndexFile() {
+        return new File(file.getPath() + ".idx");
+    }
+
+    private long writeCsv(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
+        CRC32C crc = new CRC32C();
+        try (Writer writer = new OutputStreamWriter(new CheckedOutputStream(new FileOutputStream(file), crc),
+                StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
 
-            for (Task task : getAllTasks()) {
+            for (Task task : tasks) {
                 writer.write(taskToString(task) + "\n");
             }
-            for (Epic epic : getAllEpics()) {
+            for (Epic epic : epics) {
                 writer.write(taskToString(epic) + "\n");
             }
-            for (Subtask subtask : getAllSubtasks()) {
+            for (Subtask subtask : subtasks) {
                 writer.write(taskToString(subtask) + "\n");
             }
 
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка сохранения в файл", e);
         }
+        return crc.getValue();
+    }
+
+    // Текст ленивых задач переносится из старого файла во временный, затем файл подменяется
+    // и все задачи снова отпускают текст - уже с новыми смещениями
+    private long writeLazyCsv(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
+        List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        all.addAll(tasks);
+        all.addAll(epics);
+        all.addAll(subtasks);
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        IntLongHashMap newOffsets = new IntLongHashMap();
+        CRC32C crc = new CRC32C();
+        try (OutputStream out = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)), crc)) {
+            byte[] header = CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+            out.write(header);
+            long offset = header.length;
+
+            for (Task task : all) {
+                String[] text = task.hasLazyText() ? textStore.readUncached(task.getId())
+                        : new String[]{task.getName(), task.getDescription()};
+                byte[] line = (taskToString(task, text[0], text[1]) + "\n").getBytes(StandardCharsets.UTF_8);
+                newOffsets.put(task.getId(), offset);
+                out.write(line);
+                offset += line.length;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+        }
+
+        textStore.closeChannel();
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка замены файла снимка", e);
+        }
+        textStore.replaceIndex(newOffsets);
+
+        for (Task task : all) {
+            if (!task.hasLazyText()) {
+                textStore.evict(task.getId());
+                task.setTextSource(textStore);
+            }
+        }
+        return crc.getValue();
+    }
+
+    static String taskToString(Task task) {
+        return taskToString(task, task.getName(), task.getDescription());
     }
 
-    private String taskToString(Task task) {
+    private static String taskToString(Task task, String name, String description) {
         String epicId = (task instanceof Subtask) ? String.valueOf(((Subtask) task).getEpicId()) : "";
         String startTimeStr = task.getStartTime() != null ?
             task.getStartTime().format(DATE_TIME_FORMATTER) : "";
@@ -55,29 +205,29 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return String.format("%d,%s,%s,%s,%s,%s,%s,%s",
             task.getId(),
             task.getType(),
-            escapeString(task.getName()),
+            escapeString(name),
             task.getStatus(),
-            escapeString(task.getDescription()),
+            escapeString(description),
             startTimeStr,
             durationStr,
             epicId);
     }
 
-    private String escapeString(String text) {
+    private static String escapeString(String text) {
         if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
             return "\"" + text.replace("\"", "\"\"") + "\"";
         }
         return text;
     }
 
-    private static Task fromString(String value) {
+    static Task fromString(String value) {
         String[] parts = parseCsvLine(value);
 
         int id = Integer.parseInt(parts[0]);
         TaskType type = TaskType.valueOf(parts[1]);
-        String name = unescapeString(parts[2]);
+        String name = parts[2];
         Status status = Status.valueOf(parts[3]);
-        String description = unescapeString(parts[4]);
+        String description = parts[4];
         String startTimeStr = parts.length > 5 ? parts[5] : "";
         String durationStr = parts.length > 6 ? parts[6] : "";
         String epicIdStr = parts.length > 7 ? parts[7] : "";
@@ -111,14 +261,21 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
     }
 
+    // Кавычки поля убираются, "" внутри кавычек - одна кавычка, как в MappedCsvSnapshotReader
     private static String[] parseCsvLine(String line) {
         List<String> result = new ArrayList<>();
         boolean inQuotes = false;
         StringBuilder field = new StringBuilder();
 
-        for (char c : line.toCharArray()) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
             if (c == '"') {
-                inQuotes = !inQuotes;
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
             } else if (c == ',' && !inQuotes) {
                 result.add(field.toString());
                 field.setLength(0);
@@ -130,69 +287,140 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return result.toArray(new String[0]);
     }
 
-    private static String unescapeString(String text) {
-        if (text.startsWith("\"") && text.endsWith("\"")) {
-            return text.substring(1, text.length() - 1).replace("\"\"", "\"");
+    // Сохранения идут в том же формате, в котором снимок лежит на диске
+    public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, detectFormat(file));
+    }
+
+    // Формат чтения определяется по заголовку файла, format задаёт формат последующих сохранений
+    public static FileBackedTaskManager loadFromFile(File file, SnapshotFormat format) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, format);
+        if (file.exists()) {
+            manager.readSnapshot(file);
         }
-        return text;
+        manager.restoreState();
+        return manager;
     }
 
-    public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+    // Имена и описания не загружаются в память: они читаются из файла при обращении,
+    // последние textCacheSize прочитанных текстов держатся в кэше. Только для CSV-снимка
+    public static FileBackedTaskManager loadLazily(File file, int textCacheSize) {
+        if (BinarySnapshotCodec.isBinary(file)) {
+            throw new ManagerLoadException("Ленивая загрузка поддерживается только для CSV-снимка", null);
+        }
+        LazyTextStore store = new LazyTextStore(file, textCacheSize);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, SnapshotFormat.CSV, store);
+        if (file.exists()) {
+            MappedCsvSnapshotReader.readLazy(file, manager::putLoaded, store);
+        }
+        manager.restoreState();
+        return manager;
+    }
 
-        try {
-            if (!file.exists()) {
-                return manager;
-            }
+    public static FileBackedTaskManager loadFromFileParallel(File file) {
+        return loadFromFileParallel(file, ForkJoinPool.commonPool());
+    }
 
-            String content = Files.readString(file.toPath());
-            String[] lines = content.split("\n");
+    // CSV разбирается кусками параллельно, эпики пересчитываются параллельно по одному на поток.
+    // Двоичный снимок читается последовательно: записи переменной длины без меток начала
+    public static FileBackedTaskManager loadFromFileParallel(File file, ForkJoinPool pool) {
+        SnapshotFormat format = detectFormat(file);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, format);
+        if (file.exists()) {
+            if (format == SnapshotFormat.BINARY) {
+                BinarySnapshotCodec.read(file, manager::putLoaded);
+            } else {
+                MappedCsvSnapshotReader.readParallel(file, manager::putLoaded, pool);
+            }
+        }
+        manager.restoreState(pool);
+        return manager;
+    }
 
-            // Восстанавливаем задачи
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
+    // Перевод снимка из одного формата в другой без восстановления производных данных;
+    // поисковый индекс не пишется и будет построен при первой загрузке
+    public static void convert(File source, File target, SnapshotFormat targetFormat) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(target, targetFormat);
+        manager.readSnapshot(source);
+        manager.writeSnapshot(manager.getAllTasks(), manager.getAllEpics(), manager.getAllSubtasks());
+    }
 
-                Task task = fromString(line);
-                if (task instanceof Epic) {
-                    manager.epics.put(task.getId(), (Epic) task);
-                } else if (task instanceof Subtask) {
-                    manager.subtasks.put(task.getId(), (Subtask) task);
-                } else {
-                    manager.tasks.put(task.getId(), task);
-                }
+    public static SnapshotFormat detectFormat(File file) {
+        return BinarySnapshotCodec.isBinary(file) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+    }
 
-                if (task.getId() > manager.sequence) {
-                    manager.sequence = task.getId();
-                }
-            }
+    // Чтение задач из снимка прямо в хранилища менеджера
+    protected void readSnapshot(File source) {
+        if (BinarySnapshotCodec.isBinary(source)) {
+            BinarySnapshotCodec.read(source, this::putLoaded);
+        } else {
+            // CSV разбирается прямо из отображённого в память файла, без строки на весь файл
+            MappedCsvSnapshotReader.read(source, this::putLoaded);
+        }
+    }
 
-            // Восстанавливаем связи подзадач с эпиками
-            for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
-                }
-            }
+    // Помещаем восстановленную задачу в нужное хранилище без проверок и пересчётов
+    protected void putLoaded(Task task) {
+        if (task instanceof Epic) {
+            epics.put(task.getId(), (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
 
-            // ВАЖНО: Восстанавливаем prioritizedTasks и сетку
-            manager.restorePrioritizedTasksAndGrid();
+        if (task.getId() > sequence) {
+            sequence = task.getId();
+        }
+    }
 
-            // Пересчитываем время для всех эпиков
-            for (Epic epic : manager.epics.values()) {
-                manager.updateEpicTime(epic);
+    // Восстановление производных данных после загрузки: связи, prioritizedTasks, индекс времени, эпики
+    protected void restoreState() {
+        // Восстанавливаем связи подзадач с эпиками
+        for (Subtask subtask : subtasks.values()) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                attachSubtask(epic, subtask);
             }
+        }
 
-        } catch (IOException e) {
-            throw new ManagerLoadException("Ошибка загрузки из файла", e);
+        // ВАЖНО: Восстанавливаем prioritizedTasks и индекс времени
+        restorePrioritizedTasksAndTimeIndex();
+
+        // Пересчитываем статус и время для всех эпиков
+        for (Epic epic : epics.values()) {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
         }
+        rebuildStatusIndex();
+        restoreTextIndex();
+    }
 
-        return manager;
+    // То же, но связи и агрегаты эпиков считаются в пуле, пока текущий поток строит
+    // prioritizedTasks и индекс времени: эти структуры не пересекаются
+    protected void restoreState(ForkJoinPool pool) {
+        ForkJoinTask<?> epicsRestored = attachSubtasksParallel(pool);
+        restorePrioritizedTasksAndTimeIndex();
+        epicsRestored.join();
+        rebuildStatusIndex();
+        restoreTextIndex();
+    }
+
+    // Поисковый индекс читается из файла, если он построен по этому же снимку и покрывает
+    // все загруженные задачи; иначе строится заново (в ленивом режиме это чтение всех текстов)
+    protected void restoreTextIndex() {
+        int loaded = tasks.size() + epics.size() + subtasks.size();
+        long checksum = file.exists() ? checksum(file) : -1;
+        snapshotChecksum = checksum;
+        if (!textIndex.read(textIndexFile(), file.length(), checksum) || textIndex.size() != loaded) {
+            rebuildTextIndex();
+        }
     }
 
-    // Восстановление prioritizedTasks и сетки после загрузки
-    private void restorePrioritizedTasksAndGrid() {
+    // Восстановление prioritizedTasks и индекса времени после загрузки
+    private void restorePrioritizedTasksAndTimeIndex() {
         prioritizedTasks.clear();
+        timeIndex.clear();
 
         // Восстанавливаем prioritizedTasks
         for (Task task : tasks.values()) {
@@ -206,84 +434,136 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             }
         }
 
-        // Восстанавливаем сетку
+        // Восстанавливаем индекс времени; пересекающиеся задачи в снимке - повреждённый файл
         for (Task task : prioritizedTasks) {
-            occupyGridIntervals(task);
+            try {
+                occupyTimeIndex(task);
+            } catch (IllegalStateException e) {
+                throw new ManagerLoadException("Задача " + task.getId() + " пересекается по времени с другой", e);
+            }
+        }
+    }
+
+    // --- Точки сохранения ---
+    // По умолчанию любая мутация переписывает файл целиком; наследники могут сохранять точечно
+
+    protected void afterUpsert(int id) {
+        save();
+    }
+
+    protected void afterDelete(int id) {
+        save();
+    }
+
+    protected void afterClear(TaskType type) {
+        save();
+    }
+
+    // Пакет сохраняется один раз; ошибочный пакет ничего не меняет и не сохраняется
+    protected void afterBulk(AppliedChanges changes) {
+        if (!changes.isEmpty()) {
+            save();
+        }
+    }
+
+    // Задачу, которую нельзя записать в снимок, отвергаем до изменения памяти:
+    // иначе память и файл разойдутся, а каждое следующее сохранение будет падать
+    private void checkStorable(Task task) {
+        if (format == SnapshotFormat.BINARY && task != null && !(task instanceof Epic)) {
+            BinarySnapshotCodec.checkStorable(task);
+        }
+    }
+
+    @Override
+    protected AppliedChanges applyChanges(List<? extends Task> creates, List<? extends Task> updates,
+                                          Collection<Integer> deletes) {
+        for (Task task : creates) {
+            checkStorable(task);
+        }
+        for (Task task : updates) {
+            checkStorable(task);
         }
+        AppliedChanges changes = super.applyChanges(creates, updates, deletes);
+        afterBulk(changes);
+        return changes;
     }
 
     @Override
     public int createTask(Task task) {
+        checkStorable(task);
         int result = super.createTask(task);
-        save();
+        afterUpsert(result);
         return result;
     }
 
     @Override
     public int createEpic(Epic epic) {
         int result = super.createEpic(epic);
-        save();
+        afterUpsert(result);
         return result;
     }
 
     @Override
     public int createSubtask(Subtask subtask) {
+        checkStorable(subtask);
         int result = super.createSubtask(subtask);
-        save();
+        afterUpsert(result);
         return result;
     }
 
     @Override
     public void updateTask(Task task) {
+        checkStorable(task);
         super.updateTask(task);
-        save();
+        afterUpsert(task == null ? -1 : task.getId());
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        afterUpsert(epic == null ? -1 : epic.getId());
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
+        checkStorable(subtask);
         super.updateSubtask(subtask);
-        save();
+        afterUpsert(subtask == null ? -1 : subtask.getId());
     }
 
     @Override
     public void deleteTaskById(int id) {
         super.deleteTaskById(id);
-        save();
+        afterDelete(id);
     }
 
     @Override
     public void deleteEpicById(int id) {
         super.deleteEpicById(id);
-        save();
+        afterDelete(id);
     }
 
     @Override
     public void deleteSubtaskById(int id) {
         super.deleteSubtaskById(id);
-        save();
+        afterDelete(id);
     }
 
     @Override
     public void deleteTasks() {
         super.deleteTasks();
-        save();
+        afterClear(TaskType.TASK);
     }
 
     @Override
     public void deleteEpics() {
         super.deleteEpics();
-        save();
+        afterClear(TaskType.EPIC);
     }
 
     @Override
     public void deleteSubtasks() {
         super.deleteSubtasks();
-        save();
+        afterClear(TaskType.SUBTASK);
     }
 }
@@ -0,0 +1,327 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.search.TextIndex;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Менеджер с групповой записью.
+ * Мутации только помечают состояние грязным, а снимок пишет фоновый поток:
+ * по интервалу, по числу накопленных мутаций или по явному {@link #flush()} / {@link #close()}.
+ * <p>
+ * Для сохранения после каждой операции используйте обычный {@link FileBackedTaskManager}.
+ * Экземпляр создаётся фабриками {@link #create} и {@link #loadFromFile}: фоновая запись запускается
+ * только у полностью построенного менеджера. После {@link #close()} мутации сохраняются сразу, как в
+ * {@link FileBackedTaskManager}.
+ */
+public class GroupCommitTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    private final long flushIntervalMillis;
+    private final int maxDirtyMutations;
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "group-commit-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Защищены монитором this, как и сами мутации
+    private int dirtyMutations;
+    private boolean flushScheduled;
+    // closing - фоновый поток больше не принимает задач, closed - финальный сброс выполнен
+    private boolean closing;
+    private boolean closed;
+    // Текущая мутация действительно что-то изменила - выставляется из onTask*
+    private boolean changed;
+
+    // Статистика записей
+    private volatile int lastFlushMutations;
+    private volatile long flushCount;
+    private volatile ManagerSaveException lastFailure;
+
+    protected GroupCommitTaskManager(File file, Duration flushInterval, int maxDirtyMutations) {
+        super(file);
+        if (flushInterval == null || flushInterval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Интервал сброса должен быть не меньше миллисекунды");
+        }
+        if (maxDirtyMutations <= 0) {
+            throw new IllegalArgumentException("Порог мутаций должен быть положительным");
+        }
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.maxDirtyMutations = maxDirtyMutations;
+    }
+
+    public static GroupCommitTaskManager create(File file, Duration flushInterval, int maxDirtyMutations) {
+        GroupCommitTaskManager manager = new GroupCommitTaskManager(file, flushInterval, maxDirtyMutations);
+        manager.start();
+        return manager;
+    }
+
+    public static GroupCommitTaskManager loadFromFile(File file, Duration flushInterval, int maxDirtyMutations) {
+        GroupCommitTaskManager manager = new GroupCommitTaskManager(file, flushInterval, maxDirtyMutations);
+        if (file.exists()) {
+            manager.readSnapshot(file);
+        }
+        manager.restoreState();
+        manager.start();
+        return manager;
+    }
+
+    // Периодический сброс; вызывается фабриками после конструктора, чтобы this не ушёл в поток раньше
+    protected void start() {
+        synchronized (this) {
+            // Задачи, восстановленные из файла, мутациями не считаются
+            changed = false;
+        }
+        writer.scheduleWithFixedDelay(this::backgroundFlush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Вместо записи файла только считаем мутацию; вызывается из синхронизированных мутаций.
+    // Вызовы, ничего не изменившие (например, обновление отсутствующего id), не считаются.
+    // После close() фонового потока нет - снимок пишется сразу под тем же монитором
+    @Override
+    protected void save() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        if (closed) {
+            super.save();
+            return;
+        }
+        dirtyMutations++;
+        if (dirtyMutations >= maxDirtyMutations && !flushScheduled && !closing) {
+            flushScheduled = true;
+            writer.execute(this::backgroundFlush);
+        }
+    }
+
+    // Записывает накопленные мутации: копии задач снимаются под блокировкой, файл пишется без неё.
+    // Сами объекты менеджера после выхода из блокировки снова меняются - писать их нельзя
+    public void flush() {
+        synchronized (flushLock) {
+            int absorbed;
+            List<Task> taskList;
+            List<Epic> epicList;
+            List<Subtask> subtaskList;
+            TextIndex.Image searchIndex;
+
+            synchronized (this) {
+                flushScheduled = false;
+                if (dirtyMutations == 0) {
+                    return;
+                }
+                absorbed = dirtyMutations;
+                dirtyMutations = 0;
+                taskList = copyAll(getAllTasks(), Task::new);
+                epicList = copyAll(getAllEpics(), Epic::new);
+                subtaskList = copyAll(getAllSubtasks(), Subtask::new);
+                searchIndex = textIndex.image();
+            }
+
+            long checksum;
+            try {
+                checksum = writeSnapshot(taskList, epicList, subtaskList);
+            } catch (ManagerSaveException e) {
+                // Мутации не потеряны - попробуем записать их при следующем сбросе
+                synchronized (this) {
+                    dirtyMutations += absorbed;
+                }
+                throw e;
+            }
+            writeTextIndex(searchIndex, checksum);
+            lastFlushMutations = absorbed;
+            flushCount++;
+        }
+    }
+
+    private static <T extends Task> List<T> copyAll(List<T> items, UnaryOperator<T> copy) {
+        List<T> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            result.add(copy.apply(item));
+        }
+        return result;
+    }
+
+    private void backgroundFlush() {
+        try {
+            flush();
+            lastFailure = null;
+        } catch (ManagerSaveException e) {
+            // Исключение отменило бы периодическую задачу - сохраняем его для close()
+            lastFailure = e;
+        }
+    }
+
+    // Останавливаем фоновый поток и записываем всё накопленное; дальше мутации пишутся синхронно
+    @Override
+    public void close() {
+        synchronized (this) {
+            closing = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        // flushLock - чтобы ни один начатый сброс не записал старый снимок поверх синхронных
+        synchronized (flushLock) {
+            synchronized (this) {
+                if (!closed) {
+                    closed = true;
+                    // Мутации, пришедшие между финальным сбросом и закрытием
+                    if (dirtyMutations > 0) {
+                        dirtyMutations = 0;
+                        super.save();
+                        super.saveSearchIndex();
+                    }
+                }
+            }
+        }
+    }
+
+    // Индекс должен совпадать со снимком на диске, поэтому сначала сбрасываются накопленные
+    // мутации; сброс сам пишет индекс, здесь он нужен, если сбрасывать было нечего
+    @Override
+    public void saveSearchIndex() {
+        synchronized (flushLock) {
+            flush();
+            synchronized (this) {
+                if (dirtyMutations == 0) {
+                    super.saveSearchIndex();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void onTaskCreated(Task task) {
+        super.onTaskCreated(task);
+        changed = true;
+    }
+
+    @Override
+    protected void onTaskUpdated(Task task) {
+        super.onTaskUpdated(task);
+        changed = true;
+    }
+
+    @Override
+    protected void onTaskDeleted(Task task) {
+        super.onTaskDeleted(task);
+        changed = true;
+    }
+
+    // Сколько мутаций поглотила последняя запись
+    public int getLastFlushMutations() {
+        return lastFlushMutations;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized int getPendingMutations() {
+        return dirtyMutations;
+    }
+
+    public ManagerSaveException getLastFailure() {
+        return lastFailure;
+    }
+
+    // --- Мутации под монитором, чтобы фоновая запись видела согласованное состояние ---
+
+    @Override
+    public synchronized int createTask(Task task) {
+        return super.createTask(task);
+    }
+
+    @Override
+    public synchronized int createEpic(Epic epic) {
+        return super.createEpic(epic);
+    }
+
+    @Override
+    public synchronized int createSubtask(Subtask subtask) {
+        return super.createSubtask(subtask);
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
+        super.updateTask(task);
+    }
+
+    @Override
+    public synchronized void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+    }
+
+    @Override
+    public synchronized void updateSubtask(Subtask subtask) {
+        super.updateSubtask(subtask);
+    }
+
+    @Override
+    public synchronized void deleteTaskById(int id) {
+        super.deleteTaskById(id);
+    }
+
+    @Override
+    public synchronized void deleteEpicById(int id) {
+        super.deleteEpicById(id);
+    }
+
+    @Override
+    public synchronized void deleteSubtaskById(int id) {
+        super.deleteSubtaskById(id);
+    }
+
+    @Override
+    public synchronized void deleteTasks() {
+        super.deleteTasks();
+    }
+
+    @Override
+    public synchronized void deleteEpics() {
+        super.deleteEpics();
+    }
+
+    @Override
+    public synchronized void deleteSubtasks() {
+        super.deleteSubtasks();
+    }
+
+    // Поиск читает индекс занятости, который меняют синхронизированные мутации
+    @Override
+    public synchronized LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return super.findFreeSlot(after, duration);
+    }
+
+    // Поиск времени для всего пакета и его создание - под одной блокировкой
+    @Override
+    public synchronized List<Integer> scheduleAll(List<? extends Task> items, LocalDateTime after) {
+        return super.scheduleAll(items, after);
+    }
+
+    // Через applyChanges проходят все пакетные изменения
+    @Override
+    protected synchronized AppliedChanges applyChanges(List<? extends Task> creates, List<? extends Task> updates,
+                                                       Collection<Integer> deletes) {
+        return super.applyChanges(creates, updates, deletes);
+    }
+}
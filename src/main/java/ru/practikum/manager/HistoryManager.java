@@ -12,4 +12,9 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    // Число задач в истории без сборки снимка
+    default int size() {
+        return getHistory().size();
+    }
+
 }
\ No newline at end of file
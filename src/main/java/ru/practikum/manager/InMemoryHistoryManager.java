@@ -3,27 +3,70 @@ package ru.practikum.manager;
 import ru.practikum.model.Task;
 import ru.practikum.model.Epic;
 import ru.practikum.model.Subtask;
+import ru.practikum.util.IntLongHashMap;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * История просмотров на индексном двусвязном списке.
+ * <p>
+ * Узлы - это ячейки параллельных массивов задач и ссылок prev/next; освободившиеся ячейки
+ * уходят в список свободных и переиспользуются, поэтому add() и remove() не создают узлов,
+ * а индекс id -> ячейка хранится без упаковки. Массивы растут удвоением.
+ * <p>
+ * {@link #getHistory()} возвращает неизменяемый снимок, который пересобирается только после
+ * изменения истории: между изменениями вызов - O(1) и без выделения памяти.
+ * <p>
+ * С ограничением размера при переполнении вытесняется задача, просмотренная раньше всех (LRU):
+ * повторный просмотр переносит задачу в конец списка, поэтому голова списка и есть кандидат.
+ * Массивы узлов не растут больше ёмкости, и память истории остаётся постоянной.
+ * <p>
+ * Снимок задачи в истории неизменяем и привязан к версии исходного объекта: при повторном
+ * просмотре неизменённой задачи узел переиспользует прежний снимок вместо новой копии.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final int maxSize;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    // Исходный объект и его версия на момент снимка
+    private Task[] sources;
+    private long[] versions;
+    private final IntLongHashMap nodeIndex = new IntLongHashMap();
+    private int first = NONE;
+    private int last = NONE;
+    private int size;
+    // Голова списка свободных ячеек (связаны через next) и граница ещё не использованных ячеек
+    private int freeHead = NONE;
+    private int used;
+
+    private List<Task> snapshot = List.of();
+    private boolean snapshotValid = true;
+
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
 
-    private static class Node {
-        Task task;
-        Node prev;
-        Node next;
-
-        Node(Task task) {
-            this.task = task;
+    public InMemoryHistoryManager(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
         }
+        this.maxSize = maxSize;
+        int capacity = Math.min(INITIAL_CAPACITY, maxSize);
+        tasks = new Task[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        sources = new Task[capacity];
+        versions = new long[capacity];
     }
 
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
-    private Node first;
-    private Node last;
+    public int getMaxSize() {
+        return maxSize;
+    }
 
     @Override
     public void add(Task task) {
@@ -32,71 +75,113 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
 
         int id = task.getId();
+        int existing = (int) nodeIndex.get(id, NONE);
+        Task viewed = null;
+        if (existing != NONE && sources[existing] == task && versions[existing] == task.getVersion()) {
+            if (existing == last) {
+                return; // та же версия уже в конце истории - менять нечего
+            }
+            viewed = tasks[existing];
+        }
+
         remove(id);
+        if (size == maxSize) {
+            remove(tasks[first].getId());
+        }
 
-        linkLast(task);
-        nodeMap.put(id, last);
+        int node = allocateNode();
+        tasks[node] = viewed != null ? viewed : copyTask(task);
+        sources[node] = task;
+        versions[node] = task.getVersion();
+        linkLast(node);
+        nodeIndex.put(id, node);
+        size++;
+        snapshotValid = false;
     }
 
     @Override
     public void remove(int id) {
-        Node node = nodeMap.get(id);
-        if (node != null) {
-            removeNode(node);
-            nodeMap.remove(id);
+        int node = (int) nodeIndex.get(id, NONE);
+        if (node == NONE) {
+            return;
         }
+        nodeIndex.remove(id);
+        unlink(node);
+        releaseNode(node);
+        size--;
+        snapshotValid = false;
     }
 
+    // Снимок неизменяем, поэтому один и тот же объект безопасно отдаётся всем вызывающим
     @Override
     public List<Task> getHistory() {
-        return getTasks();
+        if (!snapshotValid) {
+            Task[] ordered = new Task[size];
+            int i = 0;
+            for (int node = first; node != NONE; node = next[node]) {
+                ordered[i++] = tasks[node];
+            }
+            snapshot = List.of(ordered);
+            snapshotValid = true;
+        }
+        return snapshot;
     }
 
-    private void linkLast(Task task) {
-        Task taskCopy = copyTask(task);
-        Node newNode = new Node(taskCopy);
-
-        if (last == null) {
-            first = newNode;
-            last = newNode;
-        } else {
-            last.next = newNode;
-            newNode.prev = last;
-            last = newNode;
-        }
+    @Override
+    public int size() {
+        return size;
     }
 
-    private List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>();
-        Node current = first;
+    // --- Ячейки узлов ---
 
-        while (current != null) {
-            tasks.add(current.task);
-            current = current.next;
+    private int allocateNode() {
+        if (freeHead != NONE) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
         }
+        if (used == tasks.length) {
+            int capacity = (int) Math.min((long) tasks.length * 2, maxSize);
+            tasks = Arrays.copyOf(tasks, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        return used++;
+    }
 
-        return tasks;
+    // Ссылки на задачу и снимок обнуляются, чтобы свободная ячейка не удерживала объект
+    private void releaseNode(int node) {
+        tasks[node] = null;
+        sources[node] = null;
+        next[node] = freeHead;
+        freeHead = node;
     }
 
-    private void removeNode(Node node) {
-        if (node == null) {
-            return;
+    private void linkLast(int node) {
+        prev[node] = last;
+        next[node] = NONE;
+        if (last == NONE) {
+            first = node;
+        } else {
+            next[last] = node;
         }
+        last = node;
+    }
 
-        if (node.prev != null) {
-            node.prev.next = node.next;
+    private void unlink(int node) {
+        if (prev[node] != NONE) {
+            next[prev[node]] = next[node];
         } else {
-            first = node.next;
+            first = next[node];
         }
 
-        if (node.next != null) {
-            node.next.prev = node.prev;
+        if (next[node] != NONE) {
+            prev[next[node]] = prev[node];
         } else {
-            last = node.prev;
+            last = prev[node];
         }
-
-        node.prev = null;
-        node.next = null;
     }
 
     private Task copyTask(Task original) {
@@ -108,4 +193,4 @@ public class InMemoryHistoryManager implements HistoryManager {
             return new Task(original);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,117 +1,159 @@
 package ru.practikum.manager;
 
+import ru.practikum.events.EventPublisher;
+import ru.practikum.events.OverflowPolicy;
+import ru.practikum.events.Subscription;
+import ru.practikum.events.TaskEvent;
+import ru.practikum.events.TaskEventListener;
+import ru.practikum.exception.TimeConflictException;
 import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
 import ru.practikum.model.Task;
-import ru.practikum.model.Status;
+import ru.practikum.model.TaskType;
+import ru.practikum.search.SearchHit;
+import ru.practikum.search.TextIndex;
+import ru.practikum.util.IntObjectHashMap;
+import ru.practikum.util.IntSetView;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    // Хранилища по id без упаковки ключей: id плотные и последовательные
+    protected final IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Subtask> subtasks = new IntObjectHashMap<>();
     protected int sequence = 0;
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
-    protected final Set<Task> prioritizedTasks = new TreeSet<>(
+    protected final HistoryManager historyManager;
+    // Агрегаты подзадач по id эпика для пересчёта статуса и времени без прохода по подзадачам
+    private final IntObjectHashMap<EpicAggregate> epicAggregates = new IntObjectHashMap<>();
+    protected final NavigableSet<Task> prioritizedTasks = new TreeSet<>(
             Comparator.comparing(Task::getStartTime,
                     Comparator.nullsLast(Comparator.naturalOrder()))
                     .thenComparing(Task::getId)
     );
 
-    // --- 15-МИНУТНАЯ СЕТКА ДЛЯ O(1) ПРОВЕРКИ ПЕРЕСЕЧЕНИЙ ---
-    private static final int INTERVAL_MINUTES = 15;
-    private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
-    private static final int INTERVALS_PER_YEAR = MINUTES_PER_YEAR / INTERVAL_MINUTES;
-    private final boolean[] scheduleGrid = new boolean[INTERVALS_PER_YEAR];
-    private static final LocalDateTime BASE_DATE = LocalDateTime.now()
-            .withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+    // --- ИНДЕКС ЗАНЯТОСТИ ВРЕМЕНИ ДЛЯ ПРОВЕРКИ ПЕРЕСЕЧЕНИЙ ЗА O(log n) ---
+    protected final TimeIndex timeIndex;
+    // id задач по типу и статусу для счётчиков и выборок без полного прохода
+    private final StatusIndex statusIndex = new StatusIndex();
+    // Слова имён и описаний для поиска; FileBackedTaskManager сохраняет его рядом с данными
+    protected final TextIndex textIndex = new TextIndex();
+    // Подписчики на изменения; без них события не создаются
+    protected final EventPublisher events = new EventPublisher();
+    // Наблюдение за проверками пересечений и записью, см. setProbe()
+    protected ManagerProbe probe = ManagerProbe.NONE;
+
+    public InMemoryTaskManager() {
+        this(new IntervalTimeIndex());
+    }
 
-    // Перевод времени в индекс массива
-    private Integer timeToGridIndex(LocalDateTime time) {
-        if (time == null) return null;
-        long minutesFromBase = ChronoUnit.MINUTES.between(BASE_DATE, time);
-        if (minutesFromBase < 0 || minutesFromBase >= MINUTES_PER_YEAR) return null;
-        return (int) (minutesFromBase / INTERVAL_MINUTES);
+    public InMemoryTaskManager(TimeIndex timeIndex) {
+        this(timeIndex, Managers.getDefaultHistory());
     }
 
-    // Проверка свободны ли интервалы в сетке
-    private boolean areGridIntervalsFree(Task task) {
-        if (task.getStartTime() == null || task.getDuration() == null) {
-            return true;
-        }
+    // Например, с ограниченной историей из Managers.getDefaultHistory(maxSize)
+    public InMemoryTaskManager(TimeIndex timeIndex, HistoryManager historyManager) {
+        this.timeIndex = timeIndex;
+        this.historyManager = historyManager;
+    }
 
-        Integer startIndex = timeToGridIndex(task.getStartTime());
-        Integer endIndex = timeToGridIndex(task.getEndTime());
+    // Устанавливается до начала работы с менеджером, например декоратором метрик
+    public void setProbe(ManagerProbe probe) {
+        this.probe = probe == null ? ManagerProbe.NONE : probe;
+    }
 
-        if (startIndex == null || endIndex == null) {
-            return true; // Задача вне сетки - пропускаем проверку
-        }
+    // --- Подписка на изменения ---
 
-        for (int i = startIndex; i < endIndex; i++) {
-            if (scheduleGrid[i]) {
-                return false;
-            }
+    /**
+     * События об изменениях доставляются слушателю пачками в отдельном потоке.
+     * По умолчанию при переполнении буфера события отбрасываются, а не задерживают мутации;
+     * слушатель с {@link OverflowPolicy#BLOCK} не должен вызывать менеджер.
+     */
+    public Subscription subscribe(TaskEventListener listener) {
+        return events.subscribe(listener);
+    }
+
+    public Subscription subscribe(TaskEventListener listener, int capacity, int maxBatch, OverflowPolicy policy) {
+        return events.subscribe(listener, capacity, maxBatch, policy);
+    }
+
+    // --- Общие шаги каждой мутации: индексы статусов и текста, события ---
+
+    protected void onTaskCreated(Task task) {
+        statusIndex.put(task);
+        textIndex.put(task.getId(), task.getName(), task.getDescription());
+        if (events.hasSubscribers()) {
+            events.publish(TaskEvent.created(task));
         }
-        return true;
     }
 
-    // Занять интервалы в сетке
-    protected void occupyGridIntervals(Task task) {
-        if (task.getStartTime() == null || task.getDuration() == null) {
-            return;
+    protected void onTaskUpdated(Task task) {
+        statusIndex.put(task);
+        textIndex.put(task.getId(), task.getName(), task.getDescription());
+        if (events.hasSubscribers()) {
+            events.publish(TaskEvent.updated(task));
         }
+    }
 
-        Integer startIndex = timeToGridIndex(task.getStartTime());
-        Integer endIndex = timeToGridIndex(task.getEndTime());
+    protected void onTaskDeleted(Task task) {
+        statusIndex.remove(task);
+        textIndex.remove(task.getId());
+        if (events.hasSubscribers()) {
+            events.publish(TaskEvent.deleted(task));
+        }
+    }
 
-        if (startIndex != null && endIndex != null) {
-            for (int i = startIndex; i < endIndex; i++) {
-                scheduleGrid[i] = true;
-            }
+    // После загрузки в обход CRUD: индекс статусов строится заново по хранилищам
+    protected void rebuildStatusIndex() {
+        statusIndex.clear();
+        for (Task task : tasks.values()) {
+            statusIndex.put(task);
+        }
+        for (Epic epic : epics.values()) {
+            statusIndex.put(epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            statusIndex.put(subtask);
         }
     }
 
-    // Освободить интервалы в сетке
-    private void freeGridIntervals(Task task) {
-        if (task.getStartTime() == null || task.getDuration() == null) {
-            return;
+    // То же для поискового индекса: имена и описания всех задач разбираются заново
+    protected void rebuildTextIndex() {
+        textIndex.clear();
+        for (Task task : tasks.values()) {
+            textIndex.put(task.getId(), task.getName(), task.getDescription());
         }
+        for (Epic epic : epics.values()) {
+            textIndex.put(epic.getId(), epic.getName(), epic.getDescription());
+        }
+        for (Subtask subtask : subtasks.values()) {
+            textIndex.put(subtask.getId(), subtask.getName(), subtask.getDescription());
+        }
+    }
 
-        Integer startIndex = timeToGridIndex(task.getStartTime());
-        Integer endIndex = timeToGridIndex(task.getEndTime());
+    // Занять интервал задачи в индексе
+    protected void occupyTimeIndex(Task task) {
+        timeIndex.occupy(task.getStartTime(), task.getEndTime());
+    }
 
-        if (startIndex != null && endIndex != null) {
-            for (int i = startIndex; i < endIndex; i++) {
-                scheduleGrid[i] = false;
-            }
-        }
+    // Освободить интервал задачи в индексе
+    protected void freeTimeIndex(Task task) {
+        timeIndex.release(task.getStartTime(), task.getEndTime());
     }
 
-    // ГИБРИДНАЯ ПРОВЕРКА: СЕТКА + STREAM API
     protected boolean hasTimeOverlapWithExisting(Task newTask) {
         if (newTask.getStartTime() == null || newTask.getEndTime() == null) {
+            probe.overlapChecked(ManagerProbe.OverlapOutcome.NO_TIME);
             return false;
         }
-
-        // 1. Быстрая проверка через сетку O(1)
-        if (!areGridIntervalsFree(newTask)) {
-            return true;
-        }
-
-        // 2. Проверка через Stream API для задач вне сетки
-        // УБРАЛИ ЛИШНИЕ ФИЛЬТРЫ - в prioritizedTasks уже только задачи с временем
-        return prioritizedTasks.stream()
-                .filter(existingTask -> existingTask.getId() != newTask.getId())
-                .filter(existingTask -> {
-                    // Проверяем только задачи вне сетки
-                    Integer startIndex = timeToGridIndex(existingTask.getStartTime());
-                    return startIndex == null; // Если null - задача вне сетки
-                })
-                .anyMatch(existingTask -> isOverlapping(newTask, existingTask));
+        boolean overlaps = !timeIndex.isFree(newTask.getStartTime(), newTask.getEndTime());
+        probe.overlapChecked(overlaps ? ManagerProbe.OverlapOutcome.CONFLICT : ManagerProbe.OverlapOutcome.FREE);
+        return overlaps;
     }
 
     // Проверка пересечения двух задач по времени
@@ -131,7 +173,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) return -1;
 
         if (hasTimeOverlapWithExisting(task)) {
-            throw new IllegalArgumentException("Задача пересекается по времени с существующей задачей");
+            throw new TimeConflictException("Задача пересекается по времени с существующей задачей");
         }
 
         task.setId(++sequence);
@@ -139,9 +181,10 @@ public class InMemoryTaskManager implements TaskManager {
 
         if (task.getStartTime() != null) {
             prioritizedTasks.add(task);
-            occupyGridIntervals(task); // ЗАНИМАЕМ ИНТЕРВАЛЫ В СЕТКЕ
+            occupyTimeIndex(task);
         }
 
+        onTaskCreated(task);
         return task.getId();
     }
 
@@ -152,24 +195,25 @@ public class InMemoryTaskManager implements TaskManager {
         Task oldTask = tasks.get(task.getId());
         if (oldTask.getStartTime() != null) {
             prioritizedTasks.remove(oldTask);
-            freeGridIntervals(oldTask); // ОСВОБОЖДАЕМ СТАРЫЕ ИНТЕРВАЛЫ
+            freeTimeIndex(oldTask);
         }
 
         if (hasTimeOverlapWithExisting(task)) {
             // возвращаем старую задачу
             if (oldTask.getStartTime() != null) {
                 prioritizedTasks.add(oldTask);
-                occupyGridIntervals(oldTask);
+                occupyTimeIndex(oldTask);
             }
-            throw new IllegalArgumentException("Задача пересекается по времени с существующей задачей");
+            throw new TimeConflictException("Задача пересекается по времени с существующей задачей");
         }
 
         tasks.put(task.getId(), task);
 
         if (task.getStartTime() != null) {
             prioritizedTasks.add(task);
-            occupyGridIntervals(task); // ЗАНИМАЕМ НОВЫЕ ИНТЕРВАЛЫ
+            occupyTimeIndex(task);
         }
+        onTaskUpdated(task);
     }
 
     @Override
@@ -177,9 +221,10 @@ public class InMemoryTaskManager implements TaskManager {
         Task task = tasks.remove(id);
         if (task != null) {
             historyManager.remove(id);
+            onTaskDeleted(task);
             if (task.getStartTime() != null) {
                 prioritizedTasks.remove(task);
-                freeGridIntervals(task); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ
+                freeTimeIndex(task);
             }
         }
     }
@@ -204,6 +249,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) return -1;
         epic.setId(++sequence);
         epics.put(epic.getId(), epic);
+        onTaskCreated(epic);
         // УБРАЛИ updateEpicTime() - у нового эпика нет подзадач, время будет сброшено
         return epic.getId();
     }
@@ -215,6 +261,7 @@ public class InMemoryTaskManager implements TaskManager {
         Epic savedEpic = epics.get(epic.getId());
         savedEpic.setName(epic.getName());
         savedEpic.setDescription(epic.getDescription());
+        onTaskUpdated(savedEpic);
         // УБРАЛИ updateEpicTime() - при обновлении эпика подзадачи не меняются
     }
 
@@ -222,15 +269,22 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpicById(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
-            for (Integer subtaskId : epic.getSubtaskIds()) {
+            PrimitiveIterator.OfInt subtaskIds = epic.subtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                int subtaskId = subtaskIds.nextInt();
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null && subtask.getStartTime() != null) {
                     prioritizedTasks.remove(subtask);
-                    freeGridIntervals(subtask); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ ПОДЗАДАЧ
+                    freeTimeIndex(subtask);
                 }
                 historyManager.remove(subtaskId);
+                if (subtask != null) {
+                    onTaskDeleted(subtask);
+                }
             }
+            epicAggregates.remove(id);
             historyManager.remove(id);
+            onTaskDeleted(epic);
         }
     }
 
@@ -254,18 +308,19 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) return -1;
 
         if (hasTimeOverlapWithExisting(subtask)) {
-            throw new IllegalArgumentException("Подзадача пересекается по времени с существующей задачей");
+            throw new TimeConflictException("Подзадача пересекается по времени с существующей задачей");
         }
 
         subtask.setId(++sequence);
         subtasks.put(subtask.getId(), subtask);
-        epic.addSubtaskId(subtask.getId());
+        attachSubtask(epic, subtask);
+        onTaskCreated(subtask);
         updateEpicStatus(epic);
         updateEpicTime(epic); // ОСТАВИЛИ - при создании подзадачи время эпика меняется
 
         if (subtask.getStartTime() != null) {
             prioritizedTasks.add(subtask);
-            occupyGridIntervals(subtask); // ЗАНИМАЕМ ИНТЕРВАЛЫ
+            occupyTimeIndex(subtask);
         }
 
         return subtask.getId();
@@ -281,24 +336,26 @@ public class InMemoryTaskManager implements TaskManager {
 
         if (oldSubtask.getStartTime() != null) {
             prioritizedTasks.remove(oldSubtask);
-            freeGridIntervals(oldSubtask); // ОСВОБОЖДАЕМ СТАРЫЕ ИНТЕРВАЛЫ
+            freeTimeIndex(oldSubtask);
         }
 
         if (hasTimeOverlapWithExisting(subtask)) {
             if (oldSubtask.getStartTime() != null) {
                 prioritizedTasks.add(oldSubtask);
-                occupyGridIntervals(oldSubtask);
+                occupyTimeIndex(oldSubtask);
             }
-            throw new IllegalArgumentException("Подзадача пересекается по времени с существующей задачей");
+            throw new TimeConflictException("Подзадача пересекается по времени с существующей задачей");
         }
 
         subtasks.put(subtask.getId(), subtask);
+        aggregateOf(epic).add(subtask);
+        onTaskUpdated(subtask);
         updateEpicStatus(epic);
         updateEpicTime(epic); // ОСТАВИЛИ - при обновлении подзадачи время эпика может измениться
 
         if (subtask.getStartTime() != null) {
             prioritizedTasks.add(subtask);
-            occupyGridIntervals(subtask); // ЗАНИМАЕМ НОВЫЕ ИНТЕРВАЛЫ
+            occupyTimeIndex(subtask);
         }
     }
 
@@ -306,16 +363,18 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
+            onTaskDeleted(subtask);
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
+                aggregateOf(epic).remove(id);
                 updateEpicStatus(epic);
                 updateEpicTime(epic); // ОСТАВИЛИ - при удалении подзадачи время эпика меняется
             }
             historyManager.remove(id);
             if (subtask.getStartTime() != null) {
                 prioritizedTasks.remove(subtask);
-                freeGridIntervals(subtask); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ
+                freeTimeIndex(subtask);
             }
         }
     }
@@ -336,11 +395,11 @@ public class InMemoryTaskManager implements TaskManager {
     public List<Subtask> getSubtasksByEpicId(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) return new ArrayList<>();
-        List<Subtask> result = new ArrayList<>();
-        for (Integer subId : epic.getSubtaskIds()) {
+        List<Subtask> result = new ArrayList<>(epic.subtaskIds().size());
+        epic.subtaskIds().forEach(subId -> {
             Subtask sub = subtasks.get(subId);
             if (sub != null) result.add(sub);
-        }
+        });
         return result;
     }
 
@@ -356,9 +415,10 @@ public class InMemoryTaskManager implements TaskManager {
         for (Task t : tasks.values()) {
             if (t.getStartTime() != null) {
                 prioritizedTasks.remove(t);
-                freeGridIntervals(t); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ
+                freeTimeIndex(t);
             }
             historyManager.remove(t.getId());
+            onTaskDeleted(t);
         }
         tasks.clear();
     }
@@ -366,37 +426,45 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteSubtasks() {
         for (Subtask s : subtasks.values()) {
-            Epic epic = epics.get(s.getEpicId());
-            if (epic != null) {
-                epic.removeSubtaskId(s.getId());
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
-            }
             if (s.getStartTime() != null) {
                 prioritizedTasks.remove(s);
-                freeGridIntervals(s); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ
+                freeTimeIndex(s);
             }
             historyManager.remove(s.getId());
+            onTaskDeleted(s);
         }
         subtasks.clear();
+
+        // Каждый эпик сбрасываем один раз, а не после каждой подзадачи
+        for (Epic epic : epics.values()) {
+            epic.clearSubtaskIds();
+            aggregateOf(epic).clear();
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        }
     }
 
     @Override
     public void deleteEpics() {
         for (Epic e : epics.values()) {
-            for (Integer subId : e.getSubtaskIds()) {
+            PrimitiveIterator.OfInt subtaskIds = e.subtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                int subId = subtaskIds.nextInt();
                 Subtask s = subtasks.remove(subId);
                 if (s != null) {
                     if (s.getStartTime() != null) {
                         prioritizedTasks.remove(s);
-                        freeGridIntervals(s); // ОСВОБОЖДАЕМ ИНТЕРВАЛЫ
+                        freeTimeIndex(s);
                     }
                     historyManager.remove(subId);
+                    onTaskDeleted(s);
                 }
             }
             historyManager.remove(e.getId());
+            onTaskDeleted(e);
         }
         epics.clear();
+        epicAggregates.clear();
     }
 
     // --- Приоритетные задачи ---
@@ -405,53 +473,422 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
-    // --- Вспомогательные методы эпиков ---
-    protected void updateEpicStatus(Epic epic) {
-        if (epic.getSubtaskIds().isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return PrioritizedQueries.range(prioritizedTasks, from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(Task cursor, int limit) {
+        return PrioritizedQueries.page(prioritizedTasks, cursor, limit);
+    }
+
+    // Итератор TreeSet не терпит изменений менеджера во время обхода
+    @Override
+    public Iterator<Task> prioritizedTasksIterator() {
+        return PrioritizedQueries.iterator(prioritizedTasks);
+    }
+
+    // --- Пакетные изменения ---
+    // Пакет применяется целиком или не применяется вовсе
+
+    @Override
+    public List<Integer> createAll(List<? extends Task> items) {
+        return applyChanges(items, List.of(), List.of()).createdIds;
+    }
+
+    @Override
+    public void updateAll(List<? extends Task> items) {
+        applyChanges(List.of(), items, List.of());
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        applyChanges(List.of(), List.of(), ids);
+    }
+
+    // Изменения копятся в транзакции и применяются через applyChanges при коммите
+    public TaskTransaction beginTransaction() {
+        return new TaskTransaction(this);
+    }
+
+    /**
+     * Применяет удаления, изменения и создания одним пакетом.
+     * <p>
+     * Сначала всё проверяется: интервалы удаляемых и старые интервалы изменяемых задач
+     * освобождаются в индексе, новые интервалы сортируются по началу и одним проходом
+     * проверяются друг с другом и с индексом - O(n log n) на весь пакет. При ошибке индекс
+     * возвращается в исходное состояние и бросается {@link IllegalArgumentException}
+     * ({@link TimeConflictException} при пересечении по времени), менеджер не меняется. Затем изменения применяются, и каждый затронутый эпик
+     * пересчитывается один раз.
+     * <p>
+     * Как и одиночные операции, изменения несуществующих задач и удаления несуществующих id
+     * пропускаются; подзадача без существующего эпика - ошибка всего пакета.
+     */
+    protected AppliedChanges applyChanges(List<? extends Task> creates, List<? extends Task> updates,
+                                          Collection<Integer> deletes) {
+        // Удаляемые объекты вместе с подзадачами удаляемых эпиков
+        IntObjectHashMap<Task> removed = new IntObjectHashMap<>();
+        AppliedChanges result = new AppliedChanges();
+        for (Integer boxedId : deletes) {
+            if (boxedId == null || removed.containsKey(boxedId)) continue;
+            int id = boxedId;
+            Task stored = tasks.get(id);
+            if (stored == null) stored = subtasks.get(id);
+            if (stored == null) stored = epics.get(id);
+            if (stored == null) continue;
+
+            removed.put(id, stored);
+            result.deletedIds.add(id);
+            if (stored instanceof Epic) {
+                PrimitiveIterator.OfInt subtaskIds = ((Epic) stored).subtaskIds().iterator();
+                while (subtaskIds.hasNext()) {
+                    int subtaskId = subtaskIds.nextInt();
+                    Subtask subtask = subtasks.get(subtaskId);
+                    if (subtask != null && removed.put(subtaskId, subtask) == null) {
+                        result.deletedIds.add(subtaskId);
+                    }
+                }
+            }
+        }
+
+        // Заменяемые объекты по id; изменения удаляемых задач теряют смысл
+        IntObjectHashMap<Task> replaced = new IntObjectHashMap<>();
+        List<Task> applied = new ArrayList<>(updates.size());
+        for (Task task : updates) {
+            if (task == null) {
+                throw new IllegalArgumentException("Пакет не может содержать null");
+            }
+            int id = task.getId();
+            if (removed.containsKey(id)) continue;
+            Task old;
+            if (task instanceof Epic) {
+                old = epics.get(id);
+            } else if (task instanceof Subtask) {
+                old = subtasks.get(id);
+                if (old != null && !epics.containsKey(((Subtask) old).getEpicId())) continue;
+            } else {
+                old = tasks.get(id);
+            }
+            if (old == null) continue;
+            if (replaced.put(id, old) != null) {
+                throw new IllegalArgumentException("Задача " + id + " встречается в пакете дважды");
+            }
+            applied.add(task);
         }
 
-        boolean allNew = true;
-        boolean allDone = true;
+        for (Task task : creates) {
+            if (task == null) {
+                throw new IllegalArgumentException("Пакет не может содержать null");
+            }
+            if (task instanceof Subtask) {
+                int epicId = ((Subtask) task).getEpicId();
+                if (!epics.containsKey(epicId) || removed.containsKey(epicId)) {
+                    throw new IllegalArgumentException("Эпик " + epicId + " для подзадачи не найден");
+                }
+            }
+        }
 
-        for (Integer subId : epic.getSubtaskIds()) {
-            Subtask sub = subtasks.get(subId);
-            if (sub == null) continue;
-            if (sub.getStatus() != Status.NEW) allNew = false;
-            if (sub.getStatus() != Status.DONE) allDone = false;
+        // Проверка времени: эпики своих интервалов в индексе не занимают
+        List<Task> released = new ArrayList<>();
+        for (Task task : removed.values()) {
+            if (!(task instanceof Epic) && task.getStartTime() != null) released.add(task);
+        }
+        for (Task task : replaced.values()) {
+            if (!(task instanceof Epic) && task.getStartTime() != null) released.add(task);
+        }
+        List<Task> incoming = new ArrayList<>();
+        for (Task task : applied) {
+            if (!(task instanceof Epic)) incoming.add(task);
+        }
+        for (Task task : creates) {
+            if (!(task instanceof Epic)) incoming.add(task);
         }
 
-        if (allNew) epic.setStatus(Status.NEW);
-        else if (allDone) epic.setStatus(Status.DONE);
-        else epic.setStatus(Status.IN_PROGRESS);
+        for (Task task : released) {
+            freeTimeIndex(task);
+        }
+        String conflict = findTimeConflict(incoming);
+        if (conflict != null) {
+            for (Task task : released) {
+                occupyTimeIndex(task);
+            }
+            throw new TimeConflictException(conflict);
+        }
+
+        // Применение: индекс времени уже освобождён, остаются хранилища, история и приоритеты
+        IntObjectHashMap<Epic> affectedEpics = new IntObjectHashMap<>();
+        for (Task task : removed.values()) {
+            int id = task.getId();
+            if (task instanceof Epic) {
+                epics.remove(id);
+                epicAggregates.remove(id);
+            } else if (task instanceof Subtask) {
+                subtasks.remove(id);
+                Epic epic = epics.get(((Subtask) task).getEpicId());
+                if (epic != null && !removed.containsKey(epic.getId())) {
+                    epic.removeSubtaskId(id);
+                    aggregateOf(epic).remove(id);
+                    affectedEpics.put(epic.getId(), epic);
+                }
+            } else {
+                tasks.remove(id);
+            }
+            if (task.getStartTime() != null) {
+                prioritizedTasks.remove(task);
+            }
+            historyManager.remove(id);
+            onTaskDeleted(task);
+        }
+
+        for (Task task : applied) {
+            int id = task.getId();
+            Task old = replaced.get(id);
+            if (task instanceof Epic) {
+                old.setName(task.getName());
+                old.setDescription(task.getDescription());
+            } else {
+                if (old.getStartTime() != null) {
+                    prioritizedTasks.remove(old);
+                }
+                if (task instanceof Subtask) {
+                    Epic epic = epics.get(((Subtask) old).getEpicId());
+                    subtasks.put(id, (Subtask) task);
+                    aggregateOf(epic).add((Subtask) task);
+                    affectedEpics.put(epic.getId(), epic);
+                } else {
+                    tasks.put(id, task);
+                }
+                if (task.getStartTime() != null) {
+                    prioritizedTasks.add(task);
+                    occupyTimeIndex(task);
+                }
+            }
+            onTaskUpdated(task instanceof Epic ? old : task);
+            result.updatedIds.add(id);
+        }
+
+        for (Task task : creates) {
+            task.setId(++sequence);
+            if (task instanceof Epic) {
+                epics.put(task.getId(), (Epic) task);
+            } else {
+                if (task instanceof Subtask) {
+                    Epic epic = epics.get(((Subtask) task).getEpicId());
+                    subtasks.put(task.getId(), (Subtask) task);
+                    attachSubtask(epic, (Subtask) task);
+                    affectedEpics.put(epic.getId(), epic);
+                } else {
+                    tasks.put(task.getId(), task);
+                }
+                if (task.getStartTime() != null) {
+                    prioritizedTasks.add(task);
+                    occupyTimeIndex(task);
+                }
+            }
+            onTaskCreated(task);
+            result.createdIds.add(task.getId());
+        }
+
+        for (Epic epic : affectedEpics.values()) {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        }
+        return result;
     }
 
-    protected void updateEpicTime(Epic epic) {
-        if (epic.getSubtaskIds().isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(Duration.ZERO); // ИСПРАВЛЕНИЕ: Duration.ZERO вместо null
-            epic.setEndTime(null);
-            return;
+    // Одна сортировка и один проход: пересечение внутри пакета видно по максимальному концу слева
+    private String findTimeConflict(List<Task> incoming) {
+        List<Task> timed = new ArrayList<>(incoming.size());
+        for (Task task : incoming) {
+            // Пустые интервалы индекс не занимает - как и одиночные операции, их не проверяем
+            if (task.getEndTime() != null && task.getStartTime().isBefore(task.getEndTime())) {
+                timed.add(task);
+            }
         }
+        timed.sort(Comparator.comparing(Task::getStartTime));
 
-        LocalDateTime earliest = null;
-        LocalDateTime latest = null;
-        Duration total = Duration.ZERO;
+        LocalDateTime maxEnd = null;
+        for (Task task : timed) {
+            if (maxEnd != null && task.getStartTime().isBefore(maxEnd)) {
+                return "Задачи пакета пересекаются по времени";
+            }
+            if (!timeIndex.isFree(task.getStartTime(), task.getEndTime())) {
+                probe.overlapChecked(ManagerProbe.OverlapOutcome.CONFLICT);
+                return "Задача пакета пересекается по времени с существующей задачей";
+            }
+            probe.overlapChecked(ManagerProbe.OverlapOutcome.FREE);
+            maxEnd = task.getEndTime();
+        }
+        return null;
+    }
 
-        for (Integer subId : epic.getSubtaskIds()) {
-            Subtask s = subtasks.get(subId);
-            if (s == null || s.getStartTime() == null) continue;
+    // --- Выборки по статусу ---
 
-            if (earliest == null || s.getStartTime().isBefore(earliest)) earliest = s.getStartTime();
-            LocalDateTime end = s.getEndTime();
-            if (end != null && (latest == null || end.isAfter(latest))) latest = end;
+    @Override
+    public int countTasks(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics.size();
+            case SUBTASK:
+                return subtasks.size();
+            default:
+                return tasks.size();
+        }
+    }
 
-            if (s.getDuration() != null) total = total.plus(s.getDuration());
+    @Override
+    public int countTasks(TaskType type, Status status) {
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public boolean containsTask(TaskType type, int id) {
+        switch (type) {
+            case EPIC:
+                return epics.containsKey(id);
+            case SUBTASK:
+                return subtasks.containsKey(id);
+            default:
+                return tasks.containsKey(id);
         }
+    }
 
-        epic.setStartTime(earliest);
-        epic.setDuration(total);
-        epic.setEndTime(latest);
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        IntSetView ids = statusIndex.ids(type, status);
+        List<Task> result = new ArrayList<>(ids.size());
+        PrimitiveIterator.OfInt iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            int id = iterator.nextInt();
+            Task task;
+            switch (type) {
+                case EPIC:
+                    task = epics.get(id);
+                    break;
+                case SUBTASK:
+                    task = subtasks.get(id);
+                    break;
+                default:
+                    task = tasks.get(id);
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    // --- Планирование ---
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        Scheduling.checkRequest(after, duration);
+        return timeIndex.findFreeSlot(after, duration);
+    }
+
+    // Каждый поиск начинается с конца предыдущей задачи пакета, поэтому весь пакет - один
+    // проход по индексу вперёд. Создание - одним атомарным пакетом; при ошибке задачам
+    // возвращается пустое время начала
+    @Override
+    public List<Integer> scheduleAll(List<? extends Task> items, LocalDateTime after) {
+        int placed = 0;
+        try {
+            LocalDateTime cursor = after;
+            for (Task item : items) {
+                Scheduling.checkSchedulable(item);
+                item.setStartTime(findFreeSlot(cursor, item.getDuration()));
+                placed++;
+                cursor = item.getEndTime();
+            }
+            return applyChanges(items, List.of(), List.of()).createdIds;
+        } catch (RuntimeException e) {
+            for (int i = 0; i < placed; i++) {
+                items.get(i).setStartTime(null);
+            }
+            throw e;
+        }
+    }
+
+    // --- Поиск по тексту ---
+
+    @Override
+    public List<Task> searchTasks(String query, int limit) {
+        List<SearchHit> hits = textIndex.search(query, limit);
+        List<Task> result = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            Task task = tasks.get(hit.getId());
+            if (task == null) task = epics.get(hit.getId());
+            if (task == null) task = subtasks.get(hit.getId());
+            result.add(task);
+        }
+        return result;
+    }
+
+    // --- Вспомогательные методы эпиков ---
+    private EpicAggregate aggregateOf(Epic epic) {
+        return epicAggregates.computeIfAbsent(epic.getId(), id -> new EpicAggregate());
+    }
+
+    // Привязка подзадачи к эпику вместе с учётом её вклада в агрегаты
+    protected void attachSubtask(Epic epic, Subtask subtask) {
+        epic.addSubtaskId(subtask.getId());
+        aggregateOf(epic).add(subtask);
+    }
+
+    // Привязка всех подзадач и пересчёт эпиков задачами fork/join. Каждый эпик вместе с агрегатом
+    // целиком обрабатывает один поток; общие хранилища в это время только читаются
+    protected ForkJoinTask<?> attachSubtasksParallel(ForkJoinPool pool) {
+        IntObjectHashMap<List<Subtask>> subtasksByEpic = new IntObjectHashMap<>();
+        for (Subtask subtask : subtasks.values()) {
+            if (epics.containsKey(subtask.getEpicId())) {
+                subtasksByEpic.computeIfAbsent(subtask.getEpicId(), id -> new ArrayList<>()).add(subtask);
+            }
+        }
+
+        // Агрегаты создаются заранее, чтобы потоки не меняли epicAggregates
+        List<Epic> epicList = new ArrayList<>(epics.values());
+        List<EpicAggregate> aggregates = new ArrayList<>(epicList.size());
+        for (Epic epic : epicList) {
+            aggregates.add(aggregateOf(epic));
+        }
+
+        int chunk = Math.max(1, epicList.size() / (pool.getParallelism() * 4));
+        List<ForkJoinTask<?>> jobs = new ArrayList<>();
+        for (int from = 0; from < epicList.size(); from += chunk) {
+            int to = Math.min(from + chunk, epicList.size());
+            int start = from;
+            jobs.add(ForkJoinTask.adapt(() -> {
+                for (int i = start; i < to; i++) {
+                    Epic epic = epicList.get(i);
+                    EpicAggregate aggregate = aggregates.get(i);
+                    List<Subtask> epicSubtasks = subtasksByEpic.get(epic.getId());
+                    if (epicSubtasks != null) {
+                        for (Subtask subtask : epicSubtasks) {
+                            epic.addSubtaskId(subtask.getId());
+                            aggregate.add(subtask);
+                        }
+                    }
+                    aggregate.applyStatus(epic);
+                    aggregate.applyTime(epic);
+                }
+            }));
+        }
+        return pool.submit(() -> ForkJoinTask.invokeAll(jobs));
+    }
+
+    // O(1): статус берётся из счётчиков подзадач по статусам
+    protected void updateEpicStatus(Epic epic) {
+        Status before = epic.getStatus();
+        aggregateOf(epic).applyStatus(epic);
+        if (epic.getStatus() != before) {
+            statusIndex.put(epic);
+            if (events.hasSubscribers()) {
+                events.publish(TaskEvent.epicStatusChanged(epic));
+            }
+        }
+    }
+
+    // O(log k): самое раннее начало и самое позднее окончание из упорядоченных мультимножеств
+    protected void updateEpicTime(Epic epic) {
+        aggregateOf(epic).applyTime(epic);
     }
 }
@@ -0,0 +1,77 @@
+package ru.practikum.manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Упорядоченная карта непересекающихся интервалов: начало -> конец.
+ * Работает на любом диапазоне дат с точностью исходного времени, проверка за O(log n).
+ */
+public class IntervalTimeIndex implements TimeIndex {
+    private final NavigableMap<LocalDateTime, LocalDateTime> intervals;
+
+    public IntervalTimeIndex() {
+        this(new TreeMap<>());
+    }
+
+    // Конкурентный менеджер передаёт сюда ConcurrentSkipListMap для чтения без блокировок
+    IntervalTimeIndex(NavigableMap<LocalDateTime, LocalDateTime> intervals) {
+        this.intervals = intervals;
+    }
+
+    // Интервалы не пересекаются, поэтому у ближайшего слева по началу и самый поздний конец
+    @Override
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return true;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.lowerEntry(end);
+        return previous == null || !previous.getValue().isAfter(start);
+    }
+
+    // Пересекающийся интервал нарушил бы поиск по соседям, а release одного освободил бы время другого
+    @Override
+    public void occupy(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return;
+        }
+        if (!isFree(start, end)) {
+            throw new IllegalStateException("Интервал " + start + " - " + end + " пересекается с занятым");
+        }
+        intervals.put(start, end);
+    }
+
+    @Override
+    public void release(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return;
+        }
+        intervals.remove(start, end);
+    }
+
+    // Кандидат сдвигается на конец каждого мешающего интервала: O(log n) на каждый
+    // пропущенный интервал, в свободной части расписания - один поиск
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        LocalDateTime start = after;
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.lowerEntry(start);
+        if (previous != null && previous.getValue().isAfter(start)) {
+            start = previous.getValue();
+        }
+        while (true) {
+            Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(start);
+            if (next == null || !start.plus(duration).isAfter(next.getKey())) {
+                return start;
+            }
+            start = next.getValue();
+        }
+    }
+
+    @Override
+    public void clear() {
+        intervals.clear();
+    }
+}
@@ -0,0 +1,313 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Менеджер с журналом упреждающей записи.
+ * Каждая мутация дописывает в журнал одну короткую запись вместо перезаписи всего файла.
+ * Когда журнал превышает порог, он откладывается в сторону и в фоне сливается со снимком.
+ * <p>
+ * Файлы: {@code file} - CSV-снимок, {@code file.journal} - активный журнал,
+ * {@code file.journal.old} - журнал, ожидающий слияния со снимком.
+ * <p>
+ * Формат записей журнала: {@code U,<строка CSV>} - задача создана или изменена,
+ * {@code D,<id>} - задача удалена, {@code C,<TYPE>} - удалены все задачи типа.
+ */
+public class JournaledTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File sealedJournalFile;
+    private final long compactionThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private OutputStream journal;
+    private long journalBytes;
+    private Future<?> compaction;
+
+    public JournaledTaskManager(File file) {
+        this(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public JournaledTaskManager(File file, long compactionThreshold) {
+        super(file);
+        this.snapshotFile = file;
+        this.journalFile = new File(file.getPath() + ".journal");
+        this.sealedJournalFile = new File(file.getPath() + ".journal.old");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public static JournaledTaskManager loadFromFile(File file) {
+        return loadFromFile(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // Снимок + отложенный журнал (если прошлое слияние не завершилось) + хвост активного журнала
+    public static JournaledTaskManager loadFromFile(File file, long compactionThreshold) {
+        JournaledTaskManager manager = new JournaledTaskManager(file, compactionThreshold);
+        if (file.exists()) {
+            manager.readSnapshot(file);
+        }
+        replay(manager, manager.sealedJournalFile);
+        replay(manager, manager.journalFile);
+        manager.restoreState();
+
+        if (manager.sealedJournalFile.exists()) {
+            manager.startCompaction();
+        }
+        return manager;
+    }
+
+    // --- Запись в журнал ---
+
+    @Override
+    protected void afterUpsert(int id) {
+        Task task = findStored(id);
+        if (task != null) {
+            append("U," + taskToString(task) + "\n");
+        }
+    }
+
+    @Override
+    protected void afterDelete(int id) {
+        append("D," + id + "\n");
+    }
+
+    @Override
+    protected void afterClear(TaskType type) {
+        append("C," + type + "\n");
+    }
+
+    // Весь пакет уходит в журнал одной записью на диск: сначала удаления, затем изменения и создания
+    @Override
+    protected void afterBulk(AppliedChanges changes) {
+        StringBuilder records = new StringBuilder();
+        for (int id : changes.deletedIds) {
+            records.append("D,").append(id).append('\n');
+        }
+        for (int id : changes.updatedIds) {
+            appendUpsert(records, id);
+        }
+        for (int id : changes.createdIds) {
+            appendUpsert(records, id);
+        }
+        if (records.length() > 0) {
+            append(records.toString());
+        }
+    }
+
+    private void appendUpsert(StringBuilder records, int id) {
+        Task task = findStored(id);
+        if (task != null) {
+            records.append("U,").append(taskToString(task)).append('\n');
+        }
+    }
+
+    private Task findStored(int id) {
+        Task task = tasks.get(id);
+        if (task == null) task = epics.get(id);
+        if (task == null) task = subtasks.get(id);
+        return task;
+    }
+
+    private synchronized void append(String record) {
+        long start = System.nanoTime();
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (journal == null) {
+                journal = new FileOutputStream(journalFile, true);
+                journalBytes = journalFile.length();
+            }
+            journal.write(bytes);
+            journal.flush();
+            journalBytes += bytes.length;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал", e);
+        }
+        probe.persisted(System.nanoTime() - start, bytes.length);
+
+        if (journalBytes >= compactionThreshold) {
+            rotate();
+        }
+    }
+
+    // --- Слияние журнала со снимком ---
+
+    // Откладываем активный журнал и запускаем фоновое слияние, если предыдущее уже завершилось
+    private void rotate() {
+        if (isCompacting()) {
+            return;
+        }
+        if (!sealedJournalFile.exists()) {
+            try {
+                journal.close();
+                journal = null;
+                Files.move(journalFile.toPath(), sealedJournalFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка ротации журнала", e);
+            }
+        }
+        startCompaction();
+    }
+
+    private void startCompaction() {
+        compaction = compactor.submit(this::compact);
+    }
+
+    // Журнал дополняет снимок, и метка снимка не описывает состояние с журналом, поэтому
+    // файл индекса в этом режиме не пишется и не читается: индекс строится при загрузке
+    @Override
+    protected void restoreTextIndex() {
+        rebuildTextIndex();
+    }
+
+    @Override
+    public void saveSearchIndex() {
+        // см. restoreTextIndex
+    }
+
+    private boolean isCompacting() {
+        return compaction != null && !compaction.isDone();
+    }
+
+    // Работает только с файлами снимка и отложенного журнала, состояние менеджера не трогает
+    private void compact() {
+        File tmpFile = new File(snapshotFile.getPath() + ".tmp");
+        FileBackedTaskManager merged = new FileBackedTaskManager(tmpFile);
+        if (snapshotFile.exists()) {
+            merged.readSnapshot(snapshotFile);
+        }
+        replay(merged, sealedJournalFile);
+        // Производные данные, в том числе поисковый индекс, у слияния не строятся
+        merged.writeSnapshot(merged.getAllTasks(), merged.getAllEpics(), merged.getAllSubtasks());
+
+        try {
+            Files.move(tmpFile.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(sealedJournalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка слияния журнала со снимком", e);
+        }
+    }
+
+    // Дожидаемся фонового слияния и закрываем журнал
+    @Override
+    public synchronized void close() {
+        compactor.shutdown();
+        try {
+            if (compaction != null) {
+                compaction.get();
+            }
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException("Ошибка слияния журнала со снимком", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала", e);
+        }
+    }
+
+    // --- Воспроизведение журнала ---
+
+    static void replay(FileBackedTaskManager target, File journalFile) {
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        String content;
+        try {
+            content = Files.readString(journalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка чтения журнала", e);
+        }
+
+        // Запись без завершающего перевода строки оборвана сбоем - отбрасываем её
+        int end = content.lastIndexOf('\n') + 1;
+        int start = 0;
+        StringBuilder pending = new StringBuilder();
+        while (start < end) {
+            int lineEnd = content.indexOf('\n', start);
+            pending.append(content, start, lineEnd);
+            start = lineEnd + 1;
+
+            // Строка в кавычках может содержать перевод строки - копим до закрывающей кавычки
+            if (countQuotes(pending) % 2 != 0) {
+                pending.append('\n');
+                continue;
+            }
+            applyRecord(target, pending.toString());
+            pending.setLength(0);
+        }
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') count++;
+        }
+        return count;
+    }
+
+    private static void applyRecord(FileBackedTaskManager target, String record) {
+        if (record.length() < 2) {
+            return;
+        }
+        String payload = record.substring(2);
+
+        switch (record.charAt(0)) {
+            case 'U':
+                Task task = fromString(payload);
+                target.tasks.remove(task.getId());
+                target.epics.remove(task.getId());
+                target.subtasks.remove(task.getId());
+                target.putLoaded(task);
+                break;
+            case 'D':
+                int id = Integer.parseInt(payload);
+                target.tasks.remove(id);
+                target.subtasks.remove(id);
+                Epic epic = target.epics.remove(id);
+                if (epic != null) {
+                    target.subtasks.values().removeIf(subtask -> subtask.getEpicId() == id);
+                }
+                break;
+            case 'C':
+                TaskType type = TaskType.valueOf(payload);
+                if (type == TaskType.TASK) {
+                    target.tasks.clear();
+                } else if (type == TaskType.EPIC) {
+                    target.epics.clear();
+                    target.subtasks.clear();
+                } else {
+                    target.subtasks.clear();
+                }
+                break;
+            default:
+                throw new ManagerLoadException("Неизвестная запись журнала: " + record, null);
+        }
+    }
+}
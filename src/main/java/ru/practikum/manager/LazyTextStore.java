@@ -0,0 +1,131 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskTextSource;
+import ru.practikum.util.IntLongHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Имена и описания задач, оставленные в CSV-файле.
+ * <p>
+ * В памяти хранится только индекс id -> смещение записи в файле и ограниченный кэш
+ * последних прочитанных текстов. При промахе запись дочитывается из файла позиционным
+ * чтением и разбирается тем же кодом, что и при загрузке.
+ */
+class LazyTextStore implements TaskTextSource {
+    private static final int INITIAL_RECORD_BYTES = 256;
+    private static final String[] MISSING = new String[2];
+
+    private final File file;
+    private final Map<Integer, String[]> cache;
+    private IntLongHashMap offsets = new IntLongHashMap();
+    private FileChannel channel;
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(INITIAL_RECORD_BYTES);
+
+    LazyTextStore(File file, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.file = file;
+        // LRU: порядок доступа, самая старая запись вытесняется при переполнении
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Задача загружена без текста: запоминаем, где лежит её запись
+    synchronized void register(Task task, long offset) {
+        offsets.put(task.getId(), offset);
+        task.setTextSource(this);
+    }
+
+    @Override
+    public synchronized String loadName(int taskId) {
+        return cachedText(taskId)[0];
+    }
+
+    @Override
+    public synchronized String loadDescription(int taskId) {
+        return cachedText(taskId)[1];
+    }
+
+    // Для полной перезаписи файла: читает текст, не вытесняя из кэша горячие записи
+    synchronized String[] readUncached(int taskId) {
+        String[] text = cache.get(taskId);
+        return text != null ? text : readText(taskId);
+    }
+
+    // Файл переписан: старый канал закрывается до замены файла, дальше читаем по новым смещениям
+    synchronized void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ManagerLoadException("Ошибка закрытия файла", e);
+            }
+            channel = null;
+        }
+    }
+
+    synchronized void replaceIndex(IntLongHashMap newOffsets) {
+        closeChannel();
+        offsets = newOffsets;
+    }
+
+    // Текст задачи изменился в памяти - закэшированная версия устарела
+    synchronized void evict(int taskId) {
+        cache.remove(taskId);
+    }
+
+    private String[] cachedText(int taskId) {
+        String[] text = cache.get(taskId);
+        if (text == null) {
+            text = readText(taskId);
+            if (text != MISSING) {
+                cache.put(taskId, text);
+            }
+        }
+        return text;
+    }
+
+    private String[] readText(int taskId) {
+        long offset = offsets.get(taskId, -1);
+        if (offset < 0) {
+            return MISSING;
+        }
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            }
+            // Дочитываем, пока в буфере не окажется вся запись: описание может быть любой длины
+            recordBuffer.clear();
+            while (true) {
+                int read = channel.read(recordBuffer, offset + recordBuffer.position());
+                ByteBuffer record = recordBuffer.duplicate().flip();
+                int end = MappedCsvSnapshotReader.recordEnd(record);
+                if (end >= 0) {
+                    return MappedCsvSnapshotReader.parseText(record.limit(end));
+                }
+                if (read < 0) {
+                    return MappedCsvSnapshotReader.parseText(record);
+                }
+                if (!recordBuffer.hasRemaining()) {
+                    recordBuffer = ByteBuffer.allocate(recordBuffer.capacity() * 2).put(recordBuffer.flip());
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка чтения текста задачи " + taskId, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practikum.manager;
+
+/**
+ * Точки наблюдения внутри менеджеров, которые не видны снаружи через {@link TaskManager}:
+ * исход проверки пересечений и запись на диск. По умолчанию ничего не делает.
+ * <p>
+ * Вызывается на горячем пути под блокировками менеджера - реализация должна быть быстрой
+ * и потокобезопасной.
+ */
+public interface ManagerProbe {
+    ManagerProbe NONE = new ManagerProbe() {
+    };
+
+    enum OverlapOutcome {
+        // У задачи нет интервала - индекс не запрашивался
+        NO_TIME,
+        FREE,
+        CONFLICT
+    }
+
+    default void overlapChecked(OverlapOutcome outcome) {
+    }
+
+    // Запись снимка или журнала: длительность и размер записанного
+    default void persisted(long nanos, long bytes) {
+    }
+}
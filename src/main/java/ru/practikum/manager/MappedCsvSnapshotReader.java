@@ -0,0 +1,431 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Чтение CSV-снимка через отображение файла в память.
+ * <p>
+ * Файл отображается окнами, выровненными по границам записей, и поля разбираются прямо
+ * из отображённого буфера: ни строки на весь файл, ни массива строк, ни строки на запись.
+ * В куче создаются только имена и описания задач, поэтому пик памяти при загрузке
+ * близок к размеру получившихся объектов.
+ * <p>
+ * Поля в кавычках разбираются по правилам CSV: запятые и переводы строк внутри кавычек
+ * относятся к значению, {@code ""} означает одну кавычку.
+ * <p>
+ * В параллельном режиме окно после одного прохода поиска границ записей делится на куски,
+ * которые разбираются задачами fork/join; результаты передаются потребителю в порядке файла.
+ */
+class MappedCsvSnapshotReader {
+    private static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+    private static final int FIELDS = 8;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Consumer<Task> consumer;
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    // Общий буфер для декодирования строк - переиспользуется между полями
+    private byte[] scratch = new byte[256];
+    private ByteBuffer buffer;
+    private boolean headerSkipped;
+    // Ленивый режим: текст не декодируется, смещения записей передаются в хранилище текста
+    private LazyTextStore textStore;
+    private long windowOffset;
+
+    private MappedCsvSnapshotReader(Consumer<Task> consumer, boolean headerSkipped) {
+        this.consumer = consumer;
+        this.headerSkipped = headerSkipped;
+    }
+
+    static void read(File file, Consumer<Task> consumer) {
+        read(file, consumer, DEFAULT_WINDOW);
+    }
+
+    static void read(File file, Consumer<Task> consumer, int window) {
+        new MappedCsvSnapshotReader(consumer, false).readFile(file, window);
+    }
+
+    static void readLazy(File file, Consumer<Task> consumer, LazyTextStore textStore) {
+        MappedCsvSnapshotReader reader = new MappedCsvSnapshotReader(consumer, false);
+        reader.textStore = textStore;
+        reader.readFile(file, DEFAULT_WINDOW);
+    }
+
+    static void readParallel(File file, Consumer<Task> consumer, ForkJoinPool pool) {
+        readParallel(file, consumer, pool, DEFAULT_WINDOW);
+    }
+
+    static void readParallel(File file, Consumer<Task> consumer, ForkJoinPool pool, int window) {
+        int chunksPerWindow = pool.getParallelism() * 4;
+        boolean headerSkipped = false;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(window, size - position);
+                boolean last = position + length == size;
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int[] bounds = chunkBounds(mapped, last, chunksPerWindow);
+                int consumed = bounds[bounds.length - 1];
+                if (consumed == 0 && !last) {
+                    window = (int) Math.min((long) window * 2, Integer.MAX_VALUE - 8);
+                    continue;
+                }
+
+                List<ForkJoinTask<List<Task>>> jobs = new ArrayList<>(bounds.length - 1);
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    int from = bounds[i];
+                    int to = bounds[i + 1];
+                    boolean skipHeader = headerSkipped || i > 0;
+                    jobs.add(pool.submit(() -> parseChunk(mapped, from, to, skipHeader)));
+                }
+                for (ForkJoinTask<List<Task>> job : jobs) {
+                    job.join().forEach(consumer);
+                }
+                headerSkipped = true;
+                position += consumed;
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка загрузки из файла", e);
+        } catch (RuntimeException e) {
+            throw new ManagerLoadException("Некорректная запись в файле " + file, e);
+        }
+    }
+
+    // Один последовательный проход по окну: границы кусков на концах записей примерно равного размера.
+    // Последний элемент - конец последней целой записи окна
+    private static int[] chunkBounds(ByteBuffer mapped, boolean last, int chunks) {
+        int limit = mapped.limit();
+        int step = Math.max(1, limit / chunks);
+        List<Integer> bounds = new ArrayList<>(chunks + 1);
+        bounds.add(0);
+
+        boolean inQuotes = false;
+        int recordEnd = 0;
+        int nextCut = step;
+        for (int i = 0; i < limit; i++) {
+            byte b = mapped.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                recordEnd = i + 1;
+                if (recordEnd >= nextCut) {
+                    bounds.add(recordEnd);
+                    nextCut = recordEnd + step;
+                }
+            }
+        }
+
+        int end = last ? limit : recordEnd;
+        if (bounds.get(bounds.size() - 1) != end) {
+            bounds.add(end);
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<Task> parseChunk(ByteBuffer mapped, int from, int to, boolean headerSkipped) {
+        List<Task> result = new ArrayList<>();
+        MappedCsvSnapshotReader reader = new MappedCsvSnapshotReader(result::add, headerSkipped);
+        reader.buffer = mapped;
+        reader.parseRange(from, to);
+        return result;
+    }
+
+    private void readFile(File file, int window) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(window, size - position);
+                boolean last = position + length == size;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                windowOffset = position;
+
+                int consumed = parseWindow(last);
+                if (consumed == 0 && !last) {
+                    // Запись длиннее окна - увеличиваем окно и отображаем заново
+                    window = (int) Math.min((long) window * 2, Integer.MAX_VALUE - 8);
+                    continue;
+                }
+                position += consumed;
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка загрузки из файла", e);
+        } catch (RuntimeException e) {
+            throw new ManagerLoadException("Некорректная запись в файле " + file, e);
+        } finally {
+            buffer = null;
+        }
+    }
+
+    // Разбирает все целые записи окна; возвращает число разобранных байт
+    private int parseWindow(boolean last) {
+        return parseRange(0, buffer.limit(), last);
+    }
+
+    // Кусок для параллельного разбора всегда заканчивается на границе записи
+    private void parseRange(int from, int to) {
+        parseRange(from, to, true);
+    }
+
+    private int parseRange(int from, int to, boolean last) {
+        int start = from;
+
+        while (start < to) {
+            int end = findRecordEnd(start, to);
+            if (end < 0) {
+                if (!last) {
+                    return start;
+                }
+                end = to;
+            }
+            parseRecord(start, end);
+            start = end + 1;
+        }
+        return to;
+    }
+
+    // Позиция перевода строки, завершающего запись, или -1, если запись не уместилась в окно
+    private int findRecordEnd(int from, int limit) {
+        boolean inQuotes = false;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parseRecord(int from, int to) {
+        while (to > from && isBlank(buffer.get(to - 1))) to--;
+        while (from < to && isBlank(buffer.get(from))) from++;
+        if (from == to) {
+            return;
+        }
+        if (!headerSkipped) {
+            headerSkipped = true;
+            return;
+        }
+
+        int count = splitFields(from, to);
+        if (count < 5) {
+            throw new IllegalArgumentException("Недостаточно полей в записи");
+        }
+
+        int id = parseInt(fieldStart[0], fieldEnd[0]);
+        TaskType type = matchEnum(TYPES, fieldStart[1], fieldEnd[1]);
+        // В ленивом режиме текст не декодируется: запоминается только смещение записи
+        String name = textStore != null ? null : decodeString(fieldStart[2], fieldEnd[2]);
+        Status status = matchEnum(STATUSES, fieldStart[3], fieldEnd[3]);
+        String description = textStore != null ? null : decodeString(fieldStart[4], fieldEnd[4]);
+        LocalDateTime startTime = isEmpty(count, 5) ? null : parseDateTime(fieldStart[5], fieldEnd[5]);
+        Duration duration = isEmpty(count, 6) ? null : Duration.ofMinutes(parseLong(fieldStart[6], fieldEnd[6]));
+
+        Task loaded;
+        switch (type) {
+            case TASK:
+                loaded = new Task(name, description, status, startTime, duration);
+                break;
+            case EPIC:
+                loaded = new Epic(name, description);
+                break;
+            case SUBTASK:
+                int epicId = parseInt(fieldStart[7], fieldEnd[7]);
+                loaded = new Subtask(name, description, status, epicId, startTime, duration);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+        loaded.setId(id);
+        if (textStore != null) {
+            textStore.register(loaded, windowOffset + from);
+        }
+        consumer.accept(loaded);
+    }
+
+    // Имя и описание из одной записи, прочитанной в буфер целиком
+    static String[] parseText(ByteBuffer record) {
+        MappedCsvSnapshotReader reader = new MappedCsvSnapshotReader(task -> { }, true);
+        reader.buffer = record;
+        int to = record.limit();
+        while (to > 0 && isBlank(record.get(to - 1))) to--;
+
+        int count = reader.splitFields(0, to);
+        if (count < 5) {
+            throw new ManagerLoadException("Недостаточно полей в записи", null);
+        }
+        return new String[]{
+                reader.decodeString(reader.fieldStart[2], reader.fieldEnd[2]),
+                reader.decodeString(reader.fieldStart[4], reader.fieldEnd[4])
+        };
+    }
+
+    // Конец записи, начинающейся с позиции 0, или -1, если запись не уместилась в буфер
+    static int recordEnd(ByteBuffer record) {
+        boolean inQuotes = false;
+        for (int i = 0; i < record.limit(); i++) {
+            byte b = record.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Границы полей записывает в fieldStart/fieldEnd; возвращает число полей
+    private int splitFields(int from, int to) {
+        int count = 0;
+        boolean inQuotes = false;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == ',' && !inQuotes) {
+                count = addField(count, start, i);
+                start = i + 1;
+            }
+        }
+        return addField(count, start, to);
+    }
+
+    private int addField(int count, int start, int end) {
+        if (count < FIELDS) {
+            fieldStart[count] = start;
+            fieldEnd[count] = end;
+        }
+        return count + 1;
+    }
+
+    private boolean isEmpty(int count, int field) {
+        return count <= field || fieldStart[field] == fieldEnd[field];
+    }
+
+    // --- Разбор значений прямо из буфера ---
+
+    private String decodeString(int from, int to) {
+        int length = 0;
+        ensureScratch(to - from);
+        if (to - from >= 2 && buffer.get(from) == '"' && buffer.get(to - 1) == '"') {
+            for (int i = from + 1; i < to - 1; i++) {
+                byte b = buffer.get(i);
+                scratch[length++] = b;
+                if (b == '"' && i + 1 < to - 1 && buffer.get(i + 1) == '"') {
+                    i++;
+                }
+            }
+        } else {
+            buffer.get(from, scratch, 0, to - from);
+            length = to - from;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    private <E extends Enum<E>> E matchEnum(E[] values, int from, int to) {
+        for (E value : values) {
+            if (equalsAscii(value.name(), from, to)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + decodeString(from, to));
+    }
+
+    private boolean equalsAscii(String text, int from, int to) {
+        if (text.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get(from + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseInt(int from, int to) {
+        return Math.toIntExact(parseLong(from, to));
+    }
+
+    private long parseLong(int from, int to) {
+        if (from == to) {
+            throw new NumberFormatException("Пустое число");
+        }
+        boolean negative = buffer.get(from) == '-';
+        long result = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            result = result * 10 + digit(i);
+        }
+        return negative ? -result : result;
+    }
+
+    // Быстрый путь для yyyy-MM-ddTHH:mm[:ss]; прочие варианты ISO разбирает DateTimeFormatter
+    private LocalDateTime parseDateTime(int from, int to) {
+        int length = to - from;
+        if ((length == 16 || length == 19) && buffer.get(from + 4) == '-' && buffer.get(from + 10) == 'T') {
+            int year = number(from, 4);
+            int month = number(from + 5, 2);
+            int day = number(from + 8, 2);
+            int hour = number(from + 11, 2);
+            int minute = number(from + 14, 2);
+            int second = length == 19 ? number(from + 17, 2) : 0;
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        }
+        return LocalDateTime.parse(decodeString(from, to), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private int number(int from, int digits) {
+        int result = 0;
+        for (int i = from; i < from + digits; i++) {
+            result = result * 10 + digit(i);
+        }
+        return result;
+    }
+
+    private int digit(int index) {
+        int value = buffer.get(index) - '0';
+        if (value < 0 || value > 9) {
+            throw new NumberFormatException("Ожидалась цифра в позиции " + index);
+        }
+        return value;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\r' || b == '\t' || b == '\n';
+    }
+}
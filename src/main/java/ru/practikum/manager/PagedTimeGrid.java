@@ -0,0 +1,258 @@
+package ru.practikum.manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разреженная битовая сетка занятости: один бит на слот времени.
+ * Страницы из {@code long}-слов создаются по требованию для любого диапазона дат
+ * и освобождаются, когда в них не остаётся занятых слотов.
+ * <p>
+ * Интервал округляется наружу до границ слотов, поэтому сетка точна для времени,
+ * выровненного по слотам, а для невыровненного отвергает соседние задачи в общем слоте.
+ * Слот принадлежит не более чем одному интервалу: {@link #occupy} отвергает занятые слоты,
+ * поэтому {@link #release} не может освободить границу, которую держит сосед.
+ */
+public class PagedTimeGrid implements TimeIndex {
+    public static final int DEFAULT_SLOT_MINUTES = 15;
+
+    private static final int PAGE_WORDS = 1024;
+    private static final int PAGE_SHIFT = 16; // 1024 слова * 64 бита = 65536 слотов на странице
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+    // Нет занятого слота; номера слотов до 1970 года отрицательны, поэтому не -1
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final int slotMinutes;
+    private final Map<Long, Page> pages = new HashMap<>();
+
+    private static class Page {
+        final long[] words = new long[PAGE_WORDS];
+        int occupied;
+    }
+
+    public PagedTimeGrid() {
+        this(DEFAULT_SLOT_MINUTES);
+    }
+
+    public PagedTimeGrid(int slotMinutes) {
+        if (slotMinutes <= 0) {
+            throw new IllegalArgumentException("Размер слота должен быть положительным");
+        }
+        this.slotMinutes = slotMinutes;
+    }
+
+    @Override
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return true;
+        }
+        long from = startSlot(start);
+        long to = endSlot(end);
+
+        while (from < to) {
+            long pageEnd = Math.min(to, (from | PAGE_MASK) + 1);
+            Page page = pages.get(from >> PAGE_SHIFT);
+            if (page != null && anySet(page.words, (int) (from & PAGE_MASK), (int) (pageEnd - 1 & PAGE_MASK) + 1)) {
+                return false;
+            }
+            from = pageEnd;
+        }
+        return true;
+    }
+
+    // Как и в IntervalTimeIndex, занятый слот не перезаписывается: иначе release одного интервала
+    // снял бы бит, который держит другой
+    @Override
+    public void occupy(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return;
+        }
+        if (!isFree(start, end)) {
+            throw new IllegalStateException("Интервал " + start + " - " + end + " пересекается с занятым");
+        }
+        long from = startSlot(start);
+        long to = endSlot(end);
+
+        while (from < to) {
+            long pageEnd = Math.min(to, (from | PAGE_MASK) + 1);
+            Page page = pages.computeIfAbsent(from >> PAGE_SHIFT, key -> new Page());
+            page.occupied += setRange(page.words, (int) (from & PAGE_MASK), (int) (pageEnd - 1 & PAGE_MASK) + 1);
+            from = pageEnd;
+        }
+    }
+
+    @Override
+    public void release(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            return;
+        }
+        long from = startSlot(start);
+        long to = endSlot(end);
+
+        while (from < to) {
+            long pageEnd = Math.min(to, (from | PAGE_MASK) + 1);
+            long pageIndex = from >> PAGE_SHIFT;
+            Page page = pages.get(pageIndex);
+            if (page != null) {
+                page.occupied -= clearRange(page.words, (int) (from & PAGE_MASK), (int) (pageEnd - 1 & PAGE_MASK) + 1);
+                if (page.occupied == 0) {
+                    pages.remove(pageIndex);
+                }
+            }
+            from = pageEnd;
+        }
+    }
+
+    // Если окно кандидата занято, следующий кандидат - сразу за последним занятым слотом окна:
+    // слоты до него заведомо не подходят. Каждый шаг сдвигает окно хотя бы на слот
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        LocalDateTime start = after;
+        while (true) {
+            LocalDateTime end = start.plus(duration);
+            if (!start.isBefore(end)) {
+                return start;
+            }
+            long lastOccupied = lastOccupiedSlot(startSlot(start), endSlot(end));
+            if (lastOccupied == NONE) {
+                return start;
+            }
+            start = slotStart(lastOccupied + 1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        pages.clear();
+    }
+
+    // Количество выделенных страниц - для контроля памяти
+    int pageCount() {
+        return pages.size();
+    }
+
+    // Последний занятый слот в [from, to) или NONE; страницы просматриваются с конца
+    private long lastOccupiedSlot(long from, long to) {
+        while (from < to) {
+            long pageStart = Math.max(from, (to - 1) & ~PAGE_MASK);
+            Page page = pages.get(pageStart >> PAGE_SHIFT);
+            if (page != null) {
+                int bit = lastSet(page.words, (int) (pageStart & PAGE_MASK), (int) (to - 1 & PAGE_MASK) + 1);
+                if (bit >= 0) {
+                    return (pageStart & ~PAGE_MASK) + bit;
+                }
+            }
+            to = pageStart;
+        }
+        return NONE;
+    }
+
+    // --- Перевод времени в номер слота ---
+
+    private long startSlot(LocalDateTime time) {
+        long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        return Math.floorDiv(minute, slotMinutes);
+    }
+
+    private LocalDateTime slotStart(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * slotMinutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    // Конец округляется вверх, чтобы хвост интервала не выпадал из сетки
+    private long endSlot(LocalDateTime time) {
+        long second = time.toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(second, 60);
+        if (Math.floorMod(second, 60) != 0 || time.getNano() != 0) {
+            minute++;
+        }
+        return -Math.floorDiv(-minute, slotMinutes);
+    }
+
+    // --- Операции над битами в пределах страницы: [from, to) ---
+
+    private static boolean anySet(long[] words, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((words[firstWord] & firstMask) != 0) {
+            return true;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (words[i] != 0) {
+                return true;
+            }
+        }
+        return (words[lastWord] & lastMask) != 0;
+    }
+
+    // Номер последнего занятого бита или -1
+    private static int lastSet(long[] words, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        for (int i = lastWord; i >= firstWord; i--) {
+            long mask = (i == firstWord ? firstMask : -1L) & (i == lastWord ? lastMask : -1L);
+            long bits = words[i] & mask;
+            if (bits != 0) {
+                return (i << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    // Возвращает количество впервые занятых слотов
+    private static int setRange(long[] words, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (firstWord == lastWord) {
+            return setMasked(words, firstWord, firstMask & lastMask);
+        }
+        int changed = setMasked(words, firstWord, firstMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            changed += setMasked(words, i, -1L);
+        }
+        return changed + setMasked(words, lastWord, lastMask);
+    }
+
+    // Возвращает количество освобождённых слотов
+    private static int clearRange(long[] words, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (firstWord == lastWord) {
+            return clearMasked(words, firstWord, firstMask & lastMask);
+        }
+        int changed = clearMasked(words, firstWord, firstMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            changed += clearMasked(words, i, -1L);
+        }
+        return changed + clearMasked(words, lastWord, lastMask);
+    }
+
+    private static int setMasked(long[] words, int index, long mask) {
+        int changed = Long.bitCount(mask & ~words[index]);
+        words[index] |= mask;
+        return changed;
+    }
+
+    private static int clearMasked(long[] words, int index, long mask) {
+        int changed = Long.bitCount(mask & words[index]);
+        words[index] &= ~mask;
+        return changed;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Запросы к упорядоченному индексу приоритетных задач за O(log n + k).
+ * Границы диапазона задаются пробными задачами: порядок индекса - время начала, затем id,
+ * поэтому проба с минимальным id стоит перед всеми задачами, начинающимися в то же время.
+ */
+final class PrioritizedQueries {
+
+    private PrioritizedQueries() {
+    }
+
+    static List<Task> range(NavigableSet<Task> prioritized, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Границы диапазона не могут быть null");
+        }
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(prioritized.subSet(probe(from), true, probe(to), false));
+    }
+
+    static List<Task> page(NavigableSet<Task> prioritized, Task cursor, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным");
+        }
+        // Курсор мог быть удалён или перенесён - ищем по его последним известным времени и id
+        Iterator<Task> iterator = cursor == null
+                ? prioritized.iterator()
+                : prioritized.tailSet(cursor, false).iterator();
+
+        List<Task> page = new ArrayList<>(Math.min(limit, 64));
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    static Iterator<Task> iterator(NavigableSet<Task> prioritized) {
+        return Collections.unmodifiableSet(prioritized).iterator();
+    }
+
+    private static Task probe(LocalDateTime startTime) {
+        Task probe = new Task(null, null, null, startTime, null);
+        probe.setId(Integer.MIN_VALUE);
+        return probe;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * Проверки и поиск свободного времени для планирования задач.
+ * Поиск по задачам в порядке приоритета - для менеджеров без индекса занятости.
+ */
+final class Scheduling {
+
+    private Scheduling() {
+    }
+
+    static void checkRequest(LocalDateTime after, Duration duration) {
+        if (after == null || duration == null || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Для поиска свободного времени нужны начало и положительная длительность");
+        }
+    }
+
+    // Время эпика складывается из подзадач, а уже назначенное время планирование не переносит
+    static void checkSchedulable(Task item) {
+        if (item instanceof Epic) {
+            throw new IllegalArgumentException("Эпик не планируется: его время рассчитывается по подзадачам");
+        }
+        if (item.getStartTime() != null) {
+            throw new IllegalArgumentException("У задачи уже есть время начала");
+        }
+    }
+
+    // Задачи идут по началу, задачи без времени - в конце; кандидат сдвигается на конец
+    // каждой задачи, которая в него не помещается
+    static LocalDateTime firstGap(Iterator<Task> prioritized, LocalDateTime after, Duration duration) {
+        LocalDateTime start = after;
+        while (prioritized.hasNext()) {
+            Task task = prioritized.next();
+            LocalDateTime taskStart = task.getStartTime();
+            LocalDateTime taskEnd = task.getEndTime();
+            if (taskStart == null) {
+                break;
+            }
+            if (taskEnd == null || !taskStart.isBefore(taskEnd) || !taskEnd.isAfter(start)) {
+                continue;
+            }
+            if (!start.plus(duration).isAfter(taskStart)) {
+                return start;
+            }
+            start = taskEnd;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practikum.manager;
+
+/**
+ * Формат файла снимка {@link FileBackedTaskManager}.
+ * При загрузке формат определяется автоматически по заголовку файла.
+ */
+public enum SnapshotFormat {
+    // Текстовый CSV с заголовком колонок - читается человеком
+    CSV,
+    // Компактный двоичный формат - быстрая запись и загрузка больших снимков
+    BINARY
+}
@@ -0,0 +1,62 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+import ru.practikum.util.IntSetView;
+import ru.practikum.util.LinkedIntSet;
+
+/**
+ * Вторичный индекс id задач по типу и статусу.
+ * <p>
+ * Для каждой пары тип/статус - множество id с O(1) на добавление, удаление и размер,
+ * поэтому счётчики читаются за O(1), а выборка по статусу проходит только нужные задачи.
+ * Задача без статуса в индекс не попадает.
+ */
+final class StatusIndex {
+    private static final Status[] STATUSES = Status.values();
+
+    private final LinkedIntSet[][] ids = new LinkedIntSet[TaskType.values().length][STATUSES.length];
+
+    StatusIndex() {
+        for (LinkedIntSet[] byStatus : ids) {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new LinkedIntSet();
+            }
+        }
+    }
+
+    // Задача создана или изменена: id переносится в множество её текущего статуса.
+    // Старый статус не нужен - объект задачи при обновлении заменяется новым
+    void put(Task task) {
+        LinkedIntSet[] byStatus = ids[task.getType().ordinal()];
+        for (LinkedIntSet set : byStatus) {
+            set.remove(task.getId());
+        }
+        if (task.getStatus() != null) {
+            byStatus[task.getStatus().ordinal()].add(task.getId());
+        }
+    }
+
+    void remove(Task task) {
+        for (LinkedIntSet set : ids[task.getType().ordinal()]) {
+            set.remove(task.getId());
+        }
+    }
+
+    int count(TaskType type, Status status) {
+        return ids[type.ordinal()][status.ordinal()].size();
+    }
+
+    IntSetView ids(TaskType type, Status status) {
+        return ids[type.ordinal()][status.ordinal()].asReadOnly();
+    }
+
+    void clear() {
+        for (LinkedIntSet[] byStatus : ids) {
+            for (LinkedIntSet set : byStatus) {
+                set.clear();
+            }
+        }
+    }
+}
@@ -1,10 +1,22 @@
 package ru.practikum.manager;
 
 import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
 import ru.practikum.model.Task;
-
+import ru.practikum.model.TaskType;
+import ru.practikum.search.SearchHit;
+import ru.practikum.search.TextIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public interface TaskManager {
 
@@ -49,4 +61,160 @@ public interface TaskManager {
     void deleteEpics();
 
     List<Task> getPrioritizedTasks();
+
+    // Задачи, начинающиеся в [from, to), в порядке приоритета.
+    // Реализации по умолчанию копируют весь список - менеджеры переопределяют их через упорядоченный индекс
+    default List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : getPrioritizedTasks()) {
+            LocalDateTime start = task.getStartTime();
+            if (start != null && !start.isBefore(from) && start.isBefore(to)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // Страница из limit задач строго после cursor (последней задачи прошлой страницы); null - с начала
+    default List<Task> getPrioritizedTasksAfter(Task cursor, int limit) {
+        List<Task> all = getPrioritizedTasks();
+        int from = cursor == null ? 0 : all.indexOf(cursor) + 1;
+        return new ArrayList<>(all.subList(Math.min(from, all.size()), Math.min(from + limit, all.size())));
+    }
+
+    // Ленивый обход задач по приоритету без копирования, только для чтения
+    default Iterator<Task> prioritizedTasksIterator() {
+        return Collections.unmodifiableList(getPrioritizedTasks()).iterator();
+    }
+
+    // --- Планирование ---
+    // Реализации по умолчанию проходят задачи по приоритету; InMemoryTaskManager ищет по индексу занятости
+
+    // Самое раннее начало не раньше after, с которого задача длительностью duration
+    // ни с чем не пересекается. Вместо подбора времени повторными попытками создания
+    default LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        Scheduling.checkRequest(after, duration);
+        return Scheduling.firstGap(prioritizedTasksIterator(), after, duration);
+    }
+
+    // Задачи и подзадачи без времени ставятся подряд в порядке списка: каждая - в первый
+    // свободный промежуток после конца предыдущей - и создаются. Возвращает их id.
+    // Реализация по умолчанию не атомарна, как и createAll
+    default List<Integer> scheduleAll(List<? extends Task> items, LocalDateTime after) {
+        List<Integer> ids = new ArrayList<>(items.size());
+        LocalDateTime cursor = after;
+        for (Task item : items) {
+            Scheduling.checkSchedulable(item);
+            item.setStartTime(findFreeSlot(cursor, item.getDuration()));
+            cursor = item.getEndTime();
+            ids.add(item instanceof Subtask ? createSubtask((Subtask) item) : createTask(item));
+        }
+        return ids;
+    }
+
+    // --- Выборки по статусу ---
+    // Реализации по умолчанию проходят все задачи типа; InMemoryTaskManager отвечает по индексу
+
+    default int countTasks(TaskType type) {
+        return getAllOfType(type).size();
+    }
+
+    default int countTasks(TaskType type, Status status) {
+        return getTasksByStatus(type, status).size();
+    }
+
+    // Задачи типа с заданным статусом, без записи в историю
+    default List<Task> getTasksByStatus(TaskType type, Status status) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : getAllOfType(type)) {
+            if (task.getStatus() == status) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // Есть ли задача типа с таким id, без записи в историю
+    default boolean containsTask(TaskType type, int id) {
+        for (Task task : getAllOfType(type)) {
+            if (task.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<? extends Task> getAllOfType(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return getAllEpics();
+            case SUBTASK:
+                return getAllSubtasks();
+            default:
+                return getAllTasks();
+        }
+    }
+
+    // --- Поиск по тексту ---
+
+    // Задачи всех типов, чьи имя или описание содержат слова, начинающиеся с каждого слова
+    // запроса; самые подходящие первыми, см. TextIndex. Без записи в историю.
+    // Реализация по умолчанию строит индекс на каждый запрос; InMemoryTaskManager ведёт его постоянно
+    default List<Task> searchTasks(String query, int limit) {
+        TextIndex index = new TextIndex();
+        Map<Integer, Task> byId = new HashMap<>();
+        List<Task> all = new ArrayList<>(getAllTasks());
+        all.addAll(getAllEpics());
+        all.addAll(getAllSubtasks());
+        for (Task task : all) {
+            index.put(task.getId(), task.getName(), task.getDescription());
+            byId.put(task.getId(), task);
+        }
+
+        List<Task> result = new ArrayList<>();
+        for (SearchHit hit : index.search(query, limit)) {
+            result.add(byId.get(hit.getId()));
+        }
+        return result;
+    }
+
+    // --- Пакетные изменения ---
+    // Реализации по умолчанию выполняют операции по одной и не атомарны:
+    // при ошибке уже применённые изменения остаются
+
+    // Создаёт задачи, эпики и подзадачи в порядке списка и возвращает их id
+    default List<Integer> createAll(List<? extends Task> items) {
+        List<Integer> ids = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                ids.add(createEpic((Epic) item));
+            } else if (item instanceof Subtask) {
+                ids.add(createSubtask((Subtask) item));
+            } else {
+                ids.add(createTask(item));
+            }
+        }
+        return ids;
+    }
+
+    default void updateAll(List<? extends Task> items) {
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                updateEpic((Epic) item);
+            } else if (item instanceof Subtask) {
+                updateSubtask((Subtask) item);
+            } else {
+                updateTask(item);
+            }
+        }
+    }
+
+    // id уникальны среди всех типов, поэтому лишние вызовы ничего не удаляют
+    default void deleteByIds(Collection<Integer> ids) {
+        for (int id : ids) {
+            deleteTaskById(id);
+            deleteSubtaskById(id);
+            deleteEpicById(id);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Транзакция над {@link InMemoryTaskManager}.
+ * <p>
+ * Изменения копятся в наложении и не трогают менеджер, индекс времени и файл до
+ * {@link #commit()}. Коммит проверяет все изменения вместе и применяет их одним пакетом
+ * через {@link InMemoryTaskManager#applyChanges}: при пересечении по времени менеджер
+ * остаётся прежним. Повторное изменение той же задачи заменяет предыдущее.
+ * <p>
+ * {@link #get(int)} возвращает копию, а {@link #update(Task)} запоминает копию переданной
+ * задачи: правка полученного объекта не меняет менеджер в обход транзакции, а при коммите
+ * применяются только запомненные копии.
+ * <p>
+ * Транзакция одноразовая, в том числе после неудачного коммита, и не потокобезопасна;
+ * {@link #close()} без коммита - откат.
+ */
+public class TaskTransaction implements AutoCloseable {
+    private final InMemoryTaskManager manager;
+    private final List<Task> creates = new ArrayList<>();
+    private final Map<Integer, Task> updates = new LinkedHashMap<>();
+    private final Set<Integer> deletes = new LinkedHashSet<>();
+    private boolean finished;
+
+    TaskTransaction(InMemoryTaskManager manager) {
+        this.manager = manager;
+    }
+
+    // Новая задача, эпик или подзадача; id будет назначен при коммите
+    public TaskTransaction create(Task task) {
+        checkActive();
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        creates.add(task);
+        return this;
+    }
+
+    public TaskTransaction update(Task task) {
+        checkActive();
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        if (deletes.contains(task.getId())) {
+            throw new IllegalArgumentException("Задача " + task.getId() + " уже удалена в транзакции");
+        }
+        updates.put(task.getId(), copyOf(task));
+        return this;
+    }
+
+    public TaskTransaction delete(int id) {
+        checkActive();
+        updates.remove(id);
+        deletes.add(id);
+        return this;
+    }
+
+    // Копия задачи такой, какой она станет после коммита; история просмотров не меняется
+    public Task get(int id) {
+        checkActive();
+        if (deletes.contains(id)) {
+            return null;
+        }
+        Task task = updates.get(id);
+        if (task == null) task = manager.tasks.get(id);
+        if (task == null) task = manager.epics.get(id);
+        if (task == null) task = manager.subtasks.get(id);
+        return task == null ? null : copyOf(task);
+    }
+
+    public boolean isEmpty() {
+        return creates.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    // Применяет все изменения разом и возвращает id созданных задач в порядке create()
+    public List<Integer> commit() {
+        checkActive();
+        finished = true;
+        if (isEmpty()) {
+            return new ArrayList<>();
+        }
+        return manager.applyChanges(creates, new ArrayList<>(updates.values()), deletes).createdIds;
+    }
+
+    public void rollback() {
+        checkActive();
+        finished = true;
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            rollback();
+        }
+    }
+
+    private static Task copyOf(Task task) {
+        if (task instanceof Epic) {
+            return new Epic((Epic) task);
+        } else if (task instanceof Subtask) {
+            return new Subtask((Subtask) task);
+        }
+        return new Task(task);
+    }
+
+    private void checkActive() {
+        if (finished) {
+            throw new IllegalStateException("Транзакция уже завершена");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practikum.manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Индекс занятости времени для проверки пересечений задач.
+ * Интервалы полуоткрытые: [start, end). Пустые интервалы ни с чем не пересекаются.
+ */
+public interface TimeIndex {
+
+    boolean isFree(LocalDateTime start, LocalDateTime end);
+
+    void occupy(LocalDateTime start, LocalDateTime end);
+
+    void release(LocalDateTime start, LocalDateTime end);
+
+    // Самое раннее начало не раньше after, с которого интервал длины duration свободен
+    LocalDateTime findFreeSlot(LocalDateTime after, Duration duration);
+
+    void clear();
+}
@@ -0,0 +1,95 @@
+package ru.practikum.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Публикация {@link SimpleMetricsRegistry} в JMX: каждая метрика снимка - атрибут только
+ * для чтения. Набор атрибутов строится заново при каждом запросе описания, поэтому метрики,
+ * созданные после регистрации, тоже видны.
+ */
+public class JmxMetrics implements DynamicMBean {
+    public static final String DEFAULT_NAME = "ru.practikum:type=TaskManagerMetrics";
+
+    private final SimpleMetricsRegistry registry;
+
+    public JmxMetrics(SimpleMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static ObjectName register(SimpleMetricsRegistry registry) {
+        return register(registry, DEFAULT_NAME);
+    }
+
+    public static ObjectName register(SimpleMetricsRegistry registry, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new JmxMetrics(registry), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX: " + name, e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = registry.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> snapshot = registry.snapshot();
+        AttributeList result = new AttributeList();
+        for (String attribute : attributes) {
+            Number value = snapshot.get(attribute);
+            if (value != null) {
+                result.add(new Attribute(attribute, value));
+            }
+        }
+        return result;
+    }
+
+    // Записываемых атрибутов нет - по контракту DynamicMBean это AttributeNotFoundException
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Метрика доступна только для чтения: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    // Операций нет - по контракту DynamicMBean это ReflectionException
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Операции не поддерживаются");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> snapshot = registry.snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> entry : snapshot.entrySet()) {
+            String type = entry.getValue().getClass().getName();
+            attributes[i++] = new MBeanAttributeInfo(entry.getKey(), type, entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "Метрики менеджера задач", attributes, null, null, null);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practikum.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram.
+ * <p>
+ * Каждая степень двойки делится на {@value #SUB_BUCKETS} равных корзин, поэтому перцентили
+ * точны до ~3% при любом масштабе - от наносекунд до минут - в ~1900 счётчиках.
+ * Запись - три атомарные операции без блокировок и выделения памяти: увеличение счётчика
+ * корзины, добавление к сумме и обновление максимума. Чтение идёт параллельно с записью
+ * и видит почти согласованный срез, чего достаточно для метрик.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Значения меньше SUB_BUCKETS точны, дальше по SUB_BUCKETS корзин на каждую степень двойки
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // Время от start (System.nanoTime()) до текущего момента
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    // Отдельного счётчика записей нет - это сумма корзин: записи не нужна четвёртая атомарная
+    // операция, чтение проходит по корзинам
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Верхняя граница корзины, в которую попадает заданный перцентиль (0..100)
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + (shift << SUB_BITS) + mantissa;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) >>> SUB_BITS;
+        long mantissa = (bucket - SUB_BUCKETS) & (SUB_BUCKETS - 1);
+        return ((SUB_BUCKETS + mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practikum.metrics;
+
+import ru.practikum.manager.HistoryManager;
+import ru.practikum.model.Task;
+
+import java.util.List;
+
+/**
+ * Декоратор истории: размер истории и задержка getHistory().
+ * <p>
+ * add() и remove() не замеряются отдельно: они выполняются внутри операций get и delete
+ * менеджера, которые уже замерены, а лишняя пара вызовов часов удвоила бы цену замера.
+ * Размер читается через {@link HistoryManager#size()}, не пересобирая снимок из потока мониторинга.
+ */
+public class MeteredHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+    private final LatencyHistogram get;
+
+    public MeteredHistoryManager(HistoryManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.get = registry.histogram("history.get");
+        registry.gauge("history.size", delegate::size);
+    }
+
+    @Override
+    public void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = System.nanoTime();
+        List<Task> history = delegate.getHistory();
+        get.recordSince(start);
+        return history;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
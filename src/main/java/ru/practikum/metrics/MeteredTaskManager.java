@@ -0,0 +1,346 @@
+package ru.practikum.metrics;
+
+import ru.practikum.manager.ConcurrentTaskManager;
+import ru.practikum.manager.InMemoryTaskManager;
+import ru.practikum.manager.IntervalTimeIndex;
+import ru.practikum.manager.Managers;
+import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Декоратор менеджера, пишущий задержки операций в гистограммы реестра:
+ * {@code create}, {@code update}, {@code delete}, {@code get}, {@code getPrioritizedTasks}
+ * (включая диапазоны и страницы) и {@code bulk} для пакетных операций и планирования.
+ * Остальные методы вызываются без замеров.
+ * <p>
+ * Для {@link InMemoryTaskManager} (и наследников) и {@link ConcurrentTaskManager} декоратор
+ * подключает к менеджеру {@link MetricsProbe}: счётчики исходов проверки пересечений
+ * {@code overlap.*}, гистограмму записи на диск {@code persist} и объём {@code persist.bytes}.
+ * <p>
+ * Цена замера - два вызова {@link System#nanoTime()} и запись в гистограмму без блокировок.
+ */
+public class MeteredTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final LatencyHistogram create;
+    private final LatencyHistogram update;
+    private final LatencyHistogram delete;
+    private final LatencyHistogram get;
+    private final LatencyHistogram prioritized;
+    private final LatencyHistogram bulk;
+
+    public MeteredTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.create = registry.histogram("create");
+        this.update = registry.histogram("update");
+        this.delete = registry.histogram("delete");
+        this.get = registry.histogram("get");
+        this.prioritized = registry.histogram("getPrioritizedTasks");
+        this.bulk = registry.histogram("bulk");
+
+        if (delegate instanceof InMemoryTaskManager) {
+            ((InMemoryTaskManager) delegate).setProbe(new MetricsProbe(registry));
+        } else if (delegate instanceof ConcurrentTaskManager) {
+            ((ConcurrentTaskManager) delegate).setProbe(new MetricsProbe(registry));
+        }
+    }
+
+    // Менеджер в памяти с замерами и историей с замерами
+    public static MeteredTaskManager inMemory(MetricsRegistry registry) {
+        InMemoryTaskManager manager = new InMemoryTaskManager(new IntervalTimeIndex(),
+                new MeteredHistoryManager(Managers.getDefaultHistory(), registry));
+        return new MeteredTaskManager(manager, registry);
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    // --- Задачи ---
+
+    @Override
+    public List<Task> getAllTasks() {
+        return delegate.getAllTasks();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTaskById(id);
+        } finally {
+            get.recordSince(start);
+        }
+    }
+
+    @Override
+    public int createTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTask(task);
+        } finally {
+            create.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            update.recordSince(start);
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteTaskById(id);
+        } finally {
+            delete.recordSince(start);
+        }
+    }
+
+    // --- Эпики ---
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return delegate.getAllEpics();
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpicById(id);
+        } finally {
+            get.recordSince(start);
+        }
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createEpic(epic);
+        } finally {
+            create.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            update.recordSince(start);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteEpicById(id);
+        } finally {
+            delete.recordSince(start);
+        }
+    }
+
+    // --- Подзадачи ---
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return delegate.getAllSubtasks();
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtaskById(id);
+        } finally {
+            get.recordSince(start);
+        }
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createSubtask(subtask);
+        } finally {
+            create.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSubtask(subtask);
+        } finally {
+            update.recordSince(start);
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteSubtaskById(id);
+        } finally {
+            delete.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return delegate.getSubtasksByEpicId(epicId);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public void deleteTasks() {
+        delegate.deleteTasks();
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        delegate.deleteSubtasks();
+    }
+
+    @Override
+    public void deleteEpics() {
+        delegate.deleteEpics();
+    }
+
+    // --- Приоритетные задачи ---
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            prioritized.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks(from, to);
+        } finally {
+            prioritized.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(Task cursor, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasksAfter(cursor, limit);
+        } finally {
+            prioritized.recordSince(start);
+        }
+    }
+
+    @Override
+    public Iterator<Task> prioritizedTasksIterator() {
+        return delegate.prioritizedTasksIterator();
+    }
+
+    // --- Планирование ---
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return delegate.findFreeSlot(after, duration);
+    }
+
+    @Override
+    public List<Integer> scheduleAll(List<? extends Task> items, LocalDateTime after) {
+        long start = System.nanoTime();
+        try {
+            return delegate.scheduleAll(items, after);
+        } finally {
+            bulk.recordSince(start);
+        }
+    }
+
+    // --- Выборки по статусу ---
+
+    @Override
+    public int countTasks(TaskType type) {
+        return delegate.countTasks(type);
+    }
+
+    @Override
+    public int countTasks(TaskType type, Status status) {
+        return delegate.countTasks(type, status);
+    }
+
+    @Override
+    public boolean containsTask(TaskType type, int id) {
+        return delegate.containsTask(type, id);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        return delegate.getTasksByStatus(type, status);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query, int limit) {
+        return delegate.searchTasks(query, limit);
+    }
+
+    // --- Пакетные изменения ---
+
+    @Override
+    public List<Integer> createAll(List<? extends Task> items) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createAll(items);
+        } finally {
+            bulk.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateAll(List<? extends Task> items) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateAll(items);
+        } finally {
+            bulk.recordSince(start);
+        }
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteByIds(ids);
+        } finally {
+            bulk.recordSince(start);
+        }
+    }
+}
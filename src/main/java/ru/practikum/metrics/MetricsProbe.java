@@ -0,0 +1,42 @@
+package ru.practikum.metrics;
+
+import ru.practikum.manager.ManagerProbe;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Исходы проверок пересечений и записи на диск - в счётчики и гистограмму реестра
+class MetricsProbe implements ManagerProbe {
+    private final LongAdder noTime;
+    private final LongAdder free;
+    private final LongAdder conflict;
+    private final LatencyHistogram persist;
+    private final LongAdder persistedBytes;
+
+    MetricsProbe(MetricsRegistry registry) {
+        noTime = registry.counter("overlap.noTime");
+        free = registry.counter("overlap.free");
+        conflict = registry.counter("overlap.conflict");
+        persist = registry.histogram("persist");
+        persistedBytes = registry.counter("persist.bytes");
+    }
+
+    @Override
+    public void overlapChecked(OverlapOutcome outcome) {
+        switch (outcome) {
+            case NO_TIME:
+                noTime.increment();
+                break;
+            case FREE:
+                free.increment();
+                break;
+            default:
+                conflict.increment();
+        }
+    }
+
+    @Override
+    public void persisted(long nanos, long bytes) {
+        persist.record(nanos);
+        persistedBytes.add(bytes);
+    }
+}
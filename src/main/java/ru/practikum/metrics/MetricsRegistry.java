@@ -0,0 +1,21 @@
+package ru.practikum.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Куда менеджеры пишут метрики. Метрики создаются один раз при подключении, дальше
+ * запись идёт напрямую в возвращённые объекты без обращений к реестру.
+ * <p>
+ * {@link SimpleMetricsRegistry} хранит всё в памяти и публикуется через JMX
+ * ({@link JmxMetrics}); для другой системы мониторинга достаточно своей реализации.
+ */
+public interface MetricsRegistry {
+
+    LatencyHistogram histogram(String name);
+
+    LongAdder counter(String name);
+
+    // Значение вычисляется при каждом чтении метрик
+    void gauge(String name, LongSupplier value);
+}
@@ -0,0 +1,51 @@
+package ru.practikum.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Реестр метрик в памяти. Повторный запрос метрики с тем же именем возвращает тот же объект.
+ * <p>
+ * {@link #snapshot()} разворачивает гистограммы в значения {@code имя.count}, {@code .mean},
+ * {@code .p50}, {@code .p99}, {@code .p999}, {@code .max} (наносекунды).
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    @Override
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    // Все метрики по именам в алфавитном порядке
+    public Map<String, Number> snapshot() {
+        Map<String, Number> result = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            result.put(name + ".count", histogram.getCount());
+            result.put(name + ".mean", histogram.getMean());
+            result.put(name + ".p50", histogram.getValueAtPercentile(50));
+            result.put(name + ".p99", histogram.getValueAtPercentile(99));
+            result.put(name + ".p999", histogram.getValueAtPercentile(99.9));
+            result.put(name + ".max", histogram.getMax());
+        });
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> result.put(name, gauge.getAsLong()));
+        return result;
+    }
+}
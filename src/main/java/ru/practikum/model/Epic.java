@@ -1,21 +1,25 @@
 package ru.practikum.model;
 
+import ru.practikum.util.IntSetView;
+import ru.practikum.util.LinkedIntSet;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private final LinkedIntSet subtaskIds;
     private LocalDateTime endTime;
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW);
+        this.subtaskIds = new LinkedIntSet();
         this.duration = java.time.Duration.ZERO; // Устанавливаем Duration.ZERO по умолчанию
     }
 
     public Epic(Epic original) {
         super(original);
-        this.subtaskIds.addAll(original.subtaskIds);
+        this.subtaskIds = new LinkedIntSet(original.subtaskIds);
         this.endTime = original.endTime;
     }
 
@@ -24,18 +28,31 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    // Копия для внешнего кода; внутри менеджеров используйте subtaskIds()
     public List<Integer> getSubtaskIds() {
-        return new ArrayList<>(subtaskIds);
+        List<Integer> result = new ArrayList<>(subtaskIds.size());
+        subtaskIds.forEach(result::add);
+        return result;
+    }
+
+    // Представление без копирования, только для чтения
+    public IntSetView subtaskIds() {
+        return subtaskIds.asReadOnly();
     }
 
     public void addSubtaskId(int id) {
-        if (!subtaskIds.contains(id)) {
-            subtaskIds.add(id);
-        }
+        subtaskIds.add(id);
+        version++;
     }
 
     public void removeSubtaskId(int id) {
-        subtaskIds.remove((Integer) id);
+        subtaskIds.remove(id);
+        version++;
+    }
+
+    public void clearSubtaskIds() {
+        subtaskIds.clear();
+        version++;
     }
 
     @Override
@@ -45,14 +62,15 @@ public class Epic extends Task {
 
     public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
+        version++;
     }
 
     @Override
     public String toString() {
         return "Epic{" +
                 "id=" + id +
-                ", name='" + name + '\'' +
-                ", description='" + description + '\'' +
+                ", name='" + getName() + '\'' +
+                ", description='" + getDescription() + '\'' +
                 ", status=" + status +
                 ", duration=" + duration + // ПРЯМОЙ ДОСТУП К ПОЛЯМ
                 ", startTime=" + startTime + // ПРЯМОЙ ДОСТУП К ПОЛЯМ
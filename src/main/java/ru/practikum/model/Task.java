@@ -11,6 +11,10 @@ public class Task {
     protected Status status;
     protected Duration duration;
     protected LocalDateTime startTime;
+    // Если задан, имя и описание не хранятся в объекте и читаются из источника по id
+    protected TaskTextSource textSource;
+    // Растёт при каждом изменении объекта: по нему история узнаёт, что сохранённый снимок устарел
+    protected long version;
 
     public Task(String name, String description, Status status) {
         this.name = name;
@@ -29,8 +33,8 @@ public class Task {
     // ИСПРАВЛЕННЫЙ конструктор копирования
     public Task(Task original) {
         this.id = original.id;
-        this.name = original.name;
-        this.description = original.description;
+        this.name = original.getName();
+        this.description = original.getDescription();
         this.status = original.status;
         this.startTime = original.startTime;
         this.duration = original.duration;
@@ -47,22 +51,57 @@ public class Task {
 
     public void setId(int id) {
         this.id = id;
+        version++;
     }
 
     public String getName() {
+        if (textSource != null) {
+            return textSource.loadName(id);
+        }
         return name;
     }
 
     public void setName(String name) {
+        loadText();
         this.name = name;
+        version++;
     }
 
     public String getDescription() {
+        if (textSource != null) {
+            return textSource.loadDescription(id);
+        }
         return description;
     }
 
     public void setDescription(String description) {
+        loadText();
         this.description = description;
+        version++;
+    }
+
+    // Текст больше не хранится в объекте, а читается из источника при обращении
+    public void setTextSource(TaskTextSource textSource) {
+        this.textSource = textSource;
+        this.name = null;
+        this.description = null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasLazyText() {
+        return textSource != null;
+    }
+
+    // Возвращаем текст в объект перед изменением, чтобы не потерять второе поле
+    private void loadText() {
+        if (textSource != null) {
+            name = textSource.loadName(id);
+            description = textSource.loadDescription(id);
+            textSource = null;
+        }
     }
 
     public Status getStatus() {
@@ -71,6 +110,7 @@ public class Task {
 
     public void setStatus(Status status) {
         this.status = status;
+        version++;
     }
 
     public Duration getDuration() {
@@ -79,6 +119,7 @@ public class Task {
 
     public void setDuration(Duration duration) {
         this.duration = duration;
+        version++;
     }
 
     public LocalDateTime getStartTime() {
@@ -87,6 +128,7 @@ public class Task {
 
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        version++;
     }
 
     public LocalDateTime getEndTime() {
@@ -113,8 +155,8 @@ public class Task {
     public String toString() {
         return "Task{" +
                 "id=" + id +
-                ", name='" + name + '\'' +
-                ", description='" + description + '\'' +
+                ", name='" + getName() + '\'' +
+                ", description='" + getDescription() + '\'' +
                 ", status=" + status +
                 ", duration=" + duration +
                 ", startTime=" + startTime +
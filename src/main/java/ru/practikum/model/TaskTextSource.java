@@ -0,0 +1,12 @@
+package ru.practikum.model;
+
+/**
+ * Источник имени и описания задачи, которые не хранятся в самом объекте.
+ * Используется менеджером с ленивой загрузкой текста из файла.
+ */
+public interface TaskTextSource {
+
+    String loadName(int taskId);
+
+    String loadDescription(int taskId);
+}
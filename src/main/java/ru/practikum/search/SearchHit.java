@@ -0,0 +1,25 @@
+package ru.practikum.search;
+
+// Найденная задача и её вес: чем больше, тем выше в выдаче
+public final class SearchHit {
+    private final int id;
+    private final double score;
+
+    public SearchHit(int id, double score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{id=" + id + ", score=" + score + '}';
+    }
+}
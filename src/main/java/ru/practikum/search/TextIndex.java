@@ -0,0 +1,332 @@
+package ru.practikum.search;
+
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.util.IntObjectHashMap;
+import ru.practikum.util.LinkedIntSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Инвертированный индекс по имени и описанию задач.
+ * <p>
+ * Слова (см. {@link TextTokenizer}) лежат в {@link TreeMap}, поэтому запрос по префиксу -
+ * это проход по диапазону ключей, а не по всем задачам. Для каждой задачи хранятся её слова
+ * с весами: изменение и удаление трогают только слова этой задачи.
+ * <p>
+ * Ранжирование: вес слова в задаче (вхождение в имя - {@value #NAME_WEIGHT}, в описание - 1),
+ * умноженный на редкость слова {@code log(1 + N / df)}; совпадение только по префиксу весит
+ * вдвое меньше точного. Слова запроса объединяются по И, веса складываются.
+ * Первым разбирается слово запроса с наименьшим числом совпадений, остальные проверяются
+ * только у найденных им задач - частое слово вроде "задача" не заставляет проходить все задачи.
+ * <p>
+ * Не потокобезопасен, как и менеджер, которому принадлежит.
+ */
+public class TextIndex {
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final double PREFIX_FACTOR = 0.5;
+
+    private static final int MAGIC = 0x544D5449; // "TMTI"
+    private static final byte VERSION = 2;
+
+    private final NavigableMap<String, LinkedIntSet> postings = new TreeMap<>();
+    private final IntObjectHashMap<Document> documents = new IntObjectHashMap<>();
+
+    // Задача добавлена или изменена: её прежние слова заменяются новыми
+    public void put(int id, String name, String description) {
+        remove(id);
+        Document document = Document.of(id, name, description);
+        documents.put(id, document);
+        addPostings(id, document);
+    }
+
+    public void remove(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            LinkedIntSet ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public boolean contains(int id) {
+        return documents.containsKey(id);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    // Каждое слово запроса - префикс; порядок: вес по убыванию, затем id
+    public List<SearchHit> search(String query, int limit) {
+        List<SearchHit> hits = new ArrayList<>();
+        if (limit <= 0) {
+            return hits;
+        }
+        // Слова запроса от самого редкого: следующие слова проверяются только у уже найденных задач
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenize(query)));
+        Map<String, Integer> matches = new HashMap<>();
+        for (String token : tokens) {
+            matches.put(token, countMatches(range(token)));
+        }
+        tokens.sort(Comparator.comparingInt(matches::get));
+
+        Map<Integer, Double> scores = null;
+        for (String token : tokens) {
+            scores = scores == null || scores.size() >= matches.get(token)
+                    ? scoreByPostings(token, scores)
+                    : scoreByDocuments(token, scores);
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        if (scores == null) {
+            return hits;
+        }
+
+        // Лучшие limit из всех найденных: куча с худшим сверху, без сортировки всей выдачи
+        Comparator<SearchHit> order = Comparator.comparingDouble(SearchHit::getScore).reversed()
+                .thenComparingInt(SearchHit::getId);
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, order.reversed());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            best.add(new SearchHit(entry.getKey(), entry.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        hits.addAll(best);
+        hits.sort(order);
+        return hits;
+    }
+
+    // Лучшее совпадение слова запроса в каждой задаче плюс накопленный вес предыдущих слов.
+    // Проход по спискам задач всех слов с этим префиксом
+    private Map<Integer, Double> scoreByPostings(String token, Map<Integer, Double> candidates) {
+        Map<Integer, Double> result = new HashMap<>();
+        for (Map.Entry<String, LinkedIntSet> entry : range(token).entrySet()) {
+            String term = entry.getKey();
+            double termScore = idf(entry.getValue().size()) * factor(term, token);
+            entry.getValue().forEach(id -> {
+                if (candidates == null || candidates.containsKey(id)) {
+                    result.merge(id, documents.get(id).weight(term) * termScore, Math::max);
+                }
+            });
+        }
+        if (candidates != null) {
+            result.replaceAll((id, score) -> score + candidates.get(id));
+        }
+        return result;
+    }
+
+    // То же, но по словам самих задач-кандидатов: когда их меньше, чем совпадений префикса
+    private Map<Integer, Double> scoreByDocuments(String token, Map<Integer, Double> candidates) {
+        Map<Integer, Double> result = new HashMap<>();
+        // Вес слова одинаков для всех задач - ищем его в словаре один раз за запрос
+        Map<String, Double> termScores = new HashMap<>();
+        for (Map.Entry<Integer, Double> candidate : candidates.entrySet()) {
+            Document document = documents.get(candidate.getKey());
+            double best = 0;
+            for (int i = document.firstWithPrefix(token); i < document.terms.length
+                    && document.terms[i].startsWith(token); i++) {
+                String term = document.terms[i];
+                double termScore = termScores.computeIfAbsent(term,
+                        t -> idf(postings.get(t).size()) * factor(t, token));
+                double score = document.weights[i] * termScore;
+                best = Math.max(best, score);
+            }
+            if (best > 0) {
+                result.put(candidate.getKey(), candidate.getValue() + best);
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<String, LinkedIntSet> range(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static int countMatches(NavigableMap<String, LinkedIntSet> range) {
+        int count = 0;
+        for (LinkedIntSet ids : range.values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    // Редкое слово весит больше частого
+    private double idf(int documentsWithTerm) {
+        return Math.log(1 + (double) documents.size() / documentsWithTerm);
+    }
+
+    private static double factor(String term, String token) {
+        return term.length() == token.length() ? 1 : PREFIX_FACTOR;
+    }
+
+    private void addPostings(int id, Document document) {
+        for (String term : document.terms) {
+            postings.computeIfAbsent(term, t -> new LinkedIntSet()).add(id);
+        }
+    }
+
+    // --- Сохранение ---
+    // Файл индекса помечается размером и контрольной суммой файла данных, по которому построен.
+    // Формат: "TMTI", байт версии, две метки long, int числа задач, затем по задаче:
+    // int id, int числа слов и пары (слово в modified UTF-8, int вес)
+
+    // Неизменяемая копия для записи без блокировки менеджера: слова задач не копируются
+    public Image image() {
+        int[] ids = new int[documents.size()];
+        Document[] copy = new Document[documents.size()];
+        int i = 0;
+        for (Document document : documents.values()) {
+            ids[i] = document.id;
+            copy[i++] = document;
+        }
+        return new Image(ids, copy);
+    }
+
+    // Загрузка вместо текущего содержимого. Файл устарел, повреждён или отсутствует - false
+    // и индекс пуст: это производные данные, их строят заново по задачам
+    public boolean read(File source, long stampLength, long stampChecksum) {
+        clear();
+        if (!source.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION
+                    || in.readLong() != stampLength || in.readLong() != stampChecksum) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                String[] terms = new String[in.readInt()];
+                int[] weights = new int[terms.length];
+                for (int j = 0; j < terms.length; j++) {
+                    terms[j] = in.readUTF();
+                    weights[j] = in.readInt();
+                }
+                Document document = new Document(id, terms, weights);
+                documents.put(id, document);
+                addPostings(id, document);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            clear();
+            return false;
+        }
+    }
+
+    public static final class Image {
+        private final int[] ids;
+        private final Document[] documents;
+
+        private Image(int[] ids, Document[] documents) {
+            this.ids = ids;
+            this.documents = documents;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        // Запись через временный файл: прочитать можно только целый индекс
+        public void write(File target, long stampLength, long stampChecksum) {
+            File tmpFile = new File(target.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(stampLength);
+                out.writeLong(stampChecksum);
+                out.writeInt(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    Document document = documents[i];
+                    out.writeInt(ids[i]);
+                    out.writeInt(document.terms.length);
+                    for (int j = 0; j < document.terms.length; j++) {
+                        out.writeUTF(document.terms[j]);
+                        out.writeInt(document.weights[j]);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка сохранения поискового индекса", e);
+            }
+            try {
+                Files.move(tmpFile.toPath(), target.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка замены файла поискового индекса", e);
+            }
+        }
+    }
+
+    // Слова одной задачи по возрастанию и их веса; не меняется после создания
+    private static final class Document {
+        private final int id;
+        private final String[] terms;
+        private final int[] weights;
+
+        private Document(int id, String[] terms, int[] weights) {
+            this.id = id;
+            this.terms = terms;
+            this.weights = weights;
+        }
+
+        static Document of(int id, String name, String description) {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (String token : TextTokenizer.tokenize(name)) {
+                counts.merge(token, NAME_WEIGHT, Integer::sum);
+            }
+            for (String token : TextTokenizer.tokenize(description)) {
+                counts.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+            }
+            String[] terms = counts.keySet().toArray(new String[0]);
+            int[] weights = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                weights[i] = counts.get(terms[i]);
+            }
+            return new Document(id, terms, weights);
+        }
+
+        // Первое слово задачи, не меньшее префикса: дальше идут слова, которые с него начинаются
+        int firstWithPrefix(String prefix) {
+            int i = Arrays.binarySearch(terms, prefix);
+            return i < 0 ? -i - 1 : i;
+        }
+
+        int weight(String term) {
+            int i = Arrays.binarySearch(terms, term);
+            return i < 0 ? 0 : weights[i];
+        }
+    }
+}
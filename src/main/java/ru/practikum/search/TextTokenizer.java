@@ -0,0 +1,48 @@
+package ru.practikum.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение текста на слова для поиска.
+ * <p>
+ * Слово - непрерывная последовательность букв и цифр любого алфавита; дефисы, апострофы
+ * и прочие знаки разделяют слова. Слова приводятся к нижнему регистру, {@code ё} заменяется
+ * на {@code е}. Морфология не учитывается: разные формы слова находятся запросом по префиксу
+ * ("задач" найдёт "задача", "задачи", "задачу").
+ */
+public final class TextTokenizer {
+    // Слова длиннее обрезаются: ключ индекса не должен расти от случайной строки без пробелов
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.append(normalize(c));
+                }
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
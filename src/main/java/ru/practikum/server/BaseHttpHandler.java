@@ -0,0 +1,89 @@
+package ru.practikum.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.practikum.manager.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * Общая часть обработчиков: доступ к менеджеру и отправка ответов.
+ * <p>
+ * Если менеджер не потокобезопасен, все обращения к нему идут под одной блокировкой.
+ * Это {@link Lock}, а не synchronized: виртуальный поток, ждущий монитор, держит
+ * поток-носитель, а ожидание на {@link Lock} его отпускает.
+ */
+abstract class BaseHttpHandler implements HttpHandler {
+    static final int OK = 200;
+    static final int CREATED = 201;
+    static final int BAD_REQUEST = 400;
+    static final int NOT_FOUND = 404;
+    static final int METHOD_NOT_ALLOWED = 405;
+    // Пересечение по времени с существующими задачами
+    static final int NOT_ACCEPTABLE = 406;
+    static final int INTERNAL_ERROR = 500;
+
+    private final TaskManager manager;
+    private final Lock lock;
+
+    BaseHttpHandler(TaskManager manager, Lock lock) {
+        this.manager = manager;
+        this.lock = lock;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            handleRequest(exchange);
+        } catch (RuntimeException e) {
+            sendError(exchange, INTERNAL_ERROR, "Внутренняя ошибка сервера");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    protected abstract void handleRequest(HttpExchange exchange) throws IOException;
+
+    protected <R> R withManager(Function<TaskManager, R> call) {
+        if (lock == null) {
+            return call.apply(manager);
+        }
+        lock.lock();
+        try {
+            return call.apply(manager);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    protected void sendJson(HttpExchange exchange, int code, StringBuilder json) throws IOException {
+        ByteBuffer bytes = TaskJson.encode(json);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.remaining());
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        }
+    }
+
+    protected void sendEmpty(HttpExchange exchange, int code) throws IOException {
+        exchange.sendResponseHeaders(code, -1);
+    }
+
+    protected void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        StringBuilder json = TaskJson.newBuffer(1);
+        TaskJson.writeError(json, message);
+        sendJson(exchange, code, json);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practikum.server;
+
+import com.sun.net.httpserver.HttpServer;
+import ru.practikum.manager.ConcurrentTaskManager;
+import ru.practikum.manager.Managers;
+import ru.practikum.manager.TaskManager;
+import ru.practikum.model.TaskType;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP API менеджера задач на {@code com.sun.net.httpserver}.
+ * <p>
+ * Каждый запрос обрабатывается в своём виртуальном потоке, поэтому тысячи одновременных
+ * соединений не требуют пула потоков ОС. {@link ConcurrentTaskManager} вызывается без
+ * блокировок; любой другой менеджер сервер защищает одной общей блокировкой.
+ * <p>
+ * Адреса: {@code /tasks}, {@code /subtasks}, {@code /epics} (см. {@link TasksHandler}),
+ * {@code /history}, {@code /prioritized}. Создание - код 201, обновление - 200, обновление
+ * неизвестного id - 404, пересечение по времени ({@code TimeConflictException}) - 406.
+ */
+public class HttpTaskServer {
+    public static final int DEFAULT_PORT = 8080;
+    // Очередь входящих соединений: при всплесках нагрузки соединения ждут, а не отбрасываются
+    private static final int BACKLOG = 1024;
+
+    static {
+        // Заголовки и тело ответа уходят отдельными записями в сокет: с алгоритмом Нейгла
+        // тело ждёт отложенного ACK клиента, и каждый ответ задерживается на десятки мс.
+        // Настройка читается при первом создании HttpServer, явное значение не трогаем
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpTaskServer() throws IOException {
+        this(Managers.getDefault(), DEFAULT_PORT);
+    }
+
+    public HttpTaskServer(TaskManager manager, int port) throws IOException {
+        Lock lock = manager instanceof ConcurrentTaskManager ? null : new ReentrantLock();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/tasks", new TasksHandler(manager, lock, TaskType.TASK));
+        server.createContext("/subtasks", new TasksHandler(manager, lock, TaskType.SUBTASK));
+        server.createContext("/epics", new TasksHandler(manager, lock, TaskType.EPIC));
+        server.createContext("/history", new ListHandler(manager, lock, "/history", TaskManager::getHistory));
+        server.createContext("/prioritized",
+                new ListHandler(manager, lock, "/prioritized", TaskManager::getPrioritizedTasks));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Ждём завершения начатых запросов не дольше delaySeconds
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public void stop() {
+        stop(0);
+    }
+
+    // Фактический порт: при port = 0 его выбирает система
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefault(), port);
+        server.start();
+        System.out.println("Сервер задач запущен на порту " + server.getPort());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practikum.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+// Списки только для чтения: /history и /prioritized
+class ListHandler extends BaseHttpHandler {
+    private final String path;
+    private final Function<TaskManager, List<Task>> query;
+
+    ListHandler(TaskManager manager, Lock lock, String path, Function<TaskManager, List<Task>> query) {
+        super(manager, lock);
+        this.path = path;
+        this.query = query;
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, METHOD_NOT_ALLOWED, "Метод не поддерживается");
+            return;
+        }
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            sendError(exchange, NOT_FOUND, "Неизвестный адрес");
+            return;
+        }
+        StringBuilder json = withManager(manager -> {
+            List<Task> tasks = query.apply(manager);
+            StringBuilder out = TaskJson.newBuffer(tasks.size());
+            TaskJson.writeTasks(out, tasks);
+            return out;
+        });
+        sendJson(exchange, OK, json);
+    }
+}
@@ -0,0 +1,391 @@
+package ru.practikum.server;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.PrimitiveIterator;
+
+/**
+ * JSON задач без сторонних библиотек.
+ * <p>
+ * Запись идёт прямо в один {@link StringBuilder} заранее оценённого размера: без дерева
+ * объектов и промежуточных строк для чисел и дат, которые форматируются сразу в буфер.
+ * Ответ кодируется в UTF-8 одной операцией. Разбор понимает плоский объект задачи;
+ * неизвестные поля, в том числе вложенные, пропускаются без создания значений.
+ * <p>
+ * Формат: {@code id}, {@code type}, {@code name}, {@code description}, {@code status},
+ * {@code startTime} (ISO-8601), {@code duration} (минуты), {@code endTime};
+ * у подзадачи {@code epicId}, у эпика {@code subtaskIds}.
+ */
+final class TaskJson {
+    // Средний размер задачи в JSON - чтобы буфер списка почти никогда не перераспределялся
+    private static final int TASK_SIZE_HINT = 192;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TaskJson() {
+    }
+
+    // --- Запись ---
+
+    static StringBuilder newBuffer(int tasks) {
+        return new StringBuilder(Math.max(64, tasks * TASK_SIZE_HINT));
+    }
+
+    static void writeTasks(StringBuilder out, Collection<? extends Task> tasks) {
+        out.append('[');
+        boolean first = true;
+        for (Task task : tasks) {
+            if (!first) out.append(',');
+            writeTask(out, task);
+            first = false;
+        }
+        out.append(']');
+    }
+
+    static void writeTask(StringBuilder out, Task task) {
+        out.append("{\"id\":").append(task.getId());
+        out.append(",\"type\":\"").append(task.getType().name()).append('"');
+        out.append(",\"name\":");
+        writeString(out, task.getName());
+        out.append(",\"description\":");
+        writeString(out, task.getDescription());
+        out.append(",\"status\":");
+        if (task.getStatus() == null) {
+            out.append("null");
+        } else {
+            out.append('"').append(task.getStatus().name()).append('"');
+        }
+        out.append(",\"startTime\":");
+        writeTime(out, task.getStartTime());
+        out.append(",\"duration\":");
+        if (task.getDuration() == null) {
+            out.append("null");
+        } else {
+            out.append(task.getDuration().toMinutes());
+        }
+        out.append(",\"endTime\":");
+        writeTime(out, task.getEndTime());
+
+        if (task instanceof Subtask) {
+            out.append(",\"epicId\":").append(((Subtask) task).getEpicId());
+        } else if (task instanceof Epic) {
+            out.append(",\"subtaskIds\":[");
+            PrimitiveIterator.OfInt ids = ((Epic) task).subtaskIds().iterator();
+            while (ids.hasNext()) {
+                out.append(ids.nextInt());
+                if (ids.hasNext()) out.append(',');
+            }
+            out.append(']');
+        }
+        out.append('}');
+    }
+
+    static void writeError(StringBuilder out, String message) {
+        out.append("{\"error\":");
+        writeString(out, message);
+        out.append('}');
+    }
+
+    static ByteBuffer encode(StringBuilder out) {
+        return StandardCharsets.UTF_8.encode(CharBuffer.wrap(out));
+    }
+
+    private static void writeTime(StringBuilder out, LocalDateTime time) {
+        if (time == null) {
+            out.append("null");
+        } else {
+            out.append('"');
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(time, out);
+            out.append('"');
+        }
+    }
+
+    private static void writeString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        // Куски без спецсимволов копируются целиком
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, from, i);
+            from = i + 1;
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        out.append(value, from, value.length()).append('"');
+    }
+
+    // --- Разбор ---
+
+    // Тип задачи задаётся адресом запроса, поле type в теле игнорируется
+    static Task parseTask(String json, TaskType type) {
+        Parser parser = new Parser(json);
+        int id = 0;
+        String name = null;
+        String description = null;
+        Status status = Status.NEW;
+        LocalDateTime startTime = null;
+        Duration duration = null;
+        Integer epicId = null;
+
+        parser.expect('{');
+        if (!parser.tryConsume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                switch (key) {
+                    case "id": id = (int) parser.readLongOrZero(); break;
+                    case "name": name = parser.readStringOrNull(); break;
+                    case "description": description = parser.readStringOrNull(); break;
+                    case "status":
+                        String statusName = parser.readStringOrNull();
+                        status = statusName == null ? Status.NEW : parseStatus(statusName);
+                        break;
+                    case "startTime":
+                        String time = parser.readStringOrNull();
+                        startTime = time == null ? null : parseTime(time);
+                        break;
+                    case "duration":
+                        duration = parser.tryNull() ? null : Duration.ofMinutes(parser.readLong());
+                        break;
+                    case "epicId": epicId = parser.tryNull() ? null : (int) parser.readLong(); break;
+                    default: parser.skipValue();
+                }
+            } while (parser.tryConsume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+
+        if (name == null) {
+            throw new IllegalArgumentException("Поле name обязательно");
+        }
+        Task task;
+        switch (type) {
+            case EPIC:
+                task = new Epic(name, description);
+                break;
+            case SUBTASK:
+                if (epicId == null) {
+                    throw new IllegalArgumentException("Поле epicId обязательно для подзадачи");
+                }
+                task = new Subtask(name, description, status, epicId, startTime, duration);
+                break;
+            default:
+                task = new Task(name, description, status, startTime, duration);
+        }
+        task.setId(id);
+        return task;
+    }
+
+    private static Status parseStatus(String name) {
+        try {
+            return Status.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус: " + name);
+        }
+    }
+
+    private static LocalDateTime parseTime(String text) {
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверное время: " + text);
+        }
+    }
+
+    // Рекурсивный спуск по строке; ошибки синтаксиса - IllegalArgumentException
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != c) {
+                throw error("ожидался символ '" + c + "'");
+            }
+            pos++;
+        }
+
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean tryNull() {
+            skipWhitespace();
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("лишние данные после объекта");
+            }
+        }
+
+        String readStringOrNull() {
+            return tryNull() ? null : readString();
+        }
+
+        long readLongOrZero() {
+            return tryNull() ? 0 : readLong();
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = null;
+            int from = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == '"') {
+                    String result = value == null
+                            ? text.substring(from, pos)
+                            : value.append(text, from, pos).toString();
+                    pos++;
+                    return result;
+                }
+                if (c == '\\') {
+                    if (value == null) value = new StringBuilder();
+                    value.append(text, from, pos);
+                    value.append(readEscape());
+                    from = pos;
+                } else {
+                    pos++;
+                }
+            }
+            throw error("незакрытая строка");
+        }
+
+        private char readEscape() {
+            pos++;
+            if (pos >= text.length()) {
+                throw error("незаконченная escape-последовательность");
+            }
+            char c = text.charAt(pos++);
+            switch (c) {
+                case '"': return '"';
+                case '\\': return '\\';
+                case '/': return '/';
+                case 'b': return '\b';
+                case 'f': return '\f';
+                case 'n': return '\n';
+                case 'r': return '\r';
+                case 't': return '\t';
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("неверная escape-последовательность");
+                    }
+                    try {
+                        char decoded = (char) Integer.parseInt(text, pos, pos + 4, 16);
+                        pos += 4;
+                        return decoded;
+                    } catch (NumberFormatException e) {
+                        throw error("неверная escape-последовательность");
+                    }
+                default:
+                    throw error("неверная escape-последовательность");
+            }
+        }
+
+        long readLong() {
+            skipWhitespace();
+            int from = pos;
+            if (pos < text.length() && text.charAt(pos) == '-') pos++;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+            try {
+                return Long.parseLong(text, from, pos, 10);
+            } catch (NumberFormatException e) {
+                throw error("ожидалось целое число");
+            }
+        }
+
+        // Значение неизвестного поля: пропускаем, не создавая объектов
+        void skipValue() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("ожидалось значение");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                pos++;
+                if (tryConsume(close)) return;
+                do {
+                    if (close == '}') {
+                        skipWhitespace();
+                        skipString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (tryConsume(','));
+                expect(close);
+            } else {
+                // Число, true, false или null
+                int from = pos;
+                while (pos < text.length() && "-+.eE0123456789truefalsn".indexOf(text.charAt(pos)) >= 0) pos++;
+                if (from == pos) {
+                    throw error("неожиданный символ '" + c + "'");
+                }
+            }
+        }
+
+        private void skipString() {
+            expect('"');
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == '"') {
+                    return;
+                }
+            }
+            throw error("незакрытая строка");
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Неверный JSON в позиции " + pos + ": " + message);
+        }
+    }
+}
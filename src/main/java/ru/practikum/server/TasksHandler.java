@@ -0,0 +1,217 @@
+package ru.practikum.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practikum.exception.TimeConflictException;
+import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * {@code /tasks}, {@code /subtasks} и {@code /epics}:
+ * GET списка и задачи по id, POST без id - создание, с id - обновление, DELETE по id.
+ * Для эпиков ещё {@code GET /epics/{id}/subtasks}.
+ */
+class TasksHandler extends BaseHttpHandler {
+    private final TaskType type;
+
+    TasksHandler(TaskManager manager, Lock lock, TaskType type) {
+        super(manager, lock);
+        this.type = type;
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange) throws IOException {
+        // ["", "tasks"], ["", "tasks", "{id}"] или ["", "epics", "{id}", "subtasks"]
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        switch (exchange.getRequestMethod()) {
+            case "GET":
+                if (parts.length == 2) {
+                    sendList(exchange);
+                } else if (parts.length == 3) {
+                    sendById(exchange, parts[2]);
+                } else if (parts.length == 4 && type == TaskType.EPIC && parts[3].equals("subtasks")) {
+                    sendEpicSubtasks(exchange, parts[2]);
+                } else {
+                    sendError(exchange, NOT_FOUND, "Неизвестный адрес");
+                }
+                break;
+            case "POST":
+                if (parts.length == 2) {
+                    save(exchange);
+                } else {
+                    sendError(exchange, NOT_FOUND, "Неизвестный адрес");
+                }
+                break;
+            case "DELETE":
+                if (parts.length == 3) {
+                    delete(exchange, parts[2]);
+                } else {
+                    sendError(exchange, NOT_FOUND, "Неизвестный адрес");
+                }
+                break;
+            default:
+                sendError(exchange, METHOD_NOT_ALLOWED, "Метод не поддерживается");
+        }
+    }
+
+    // Задачи сериализуются под блокировкой: объекты менеджера меняются на месте
+    private void sendList(HttpExchange exchange) throws IOException {
+        StringBuilder json = withManager(manager -> {
+            List<? extends Task> tasks = getAll(manager);
+            StringBuilder out = TaskJson.newBuffer(tasks.size());
+            TaskJson.writeTasks(out, tasks);
+            return out;
+        });
+        sendJson(exchange, OK, json);
+    }
+
+    private void sendById(HttpExchange exchange, String idText) throws IOException {
+        int id = parseId(idText);
+        StringBuilder json = withManager(manager -> {
+            Task task = getById(manager, id);
+            if (task == null) {
+                return null;
+            }
+            StringBuilder out = TaskJson.newBuffer(1);
+            TaskJson.writeTask(out, task);
+            return out;
+        });
+        if (json == null) {
+            sendError(exchange, NOT_FOUND, "Задача " + idText + " не найдена");
+        } else {
+            sendJson(exchange, OK, json);
+        }
+    }
+
+    private void sendEpicSubtasks(HttpExchange exchange, String idText) throws IOException {
+        int id = parseId(idText);
+        StringBuilder json = withManager(manager -> {
+            List<Subtask> subtasks = manager.getSubtasksByEpicId(id);
+            StringBuilder out = TaskJson.newBuffer(subtasks.size());
+            TaskJson.writeTasks(out, subtasks);
+            return out;
+        });
+        sendJson(exchange, OK, json);
+    }
+
+    private void save(HttpExchange exchange) throws IOException {
+        Task task;
+        try {
+            task = TaskJson.parseTask(readBody(exchange), type);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        boolean creating = task.getId() == 0;
+        int id;
+        try {
+            id = withManager(manager -> creating ? create(manager, task) : update(manager, task));
+        } catch (TimeConflictException e) {
+            sendError(exchange, NOT_ACCEPTABLE, e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (id < 0) {
+            sendError(exchange, NOT_FOUND, creating ? "Эпик подзадачи не найден"
+                    : "Задача " + task.getId() + " не найдена");
+            return;
+        }
+        StringBuilder json = TaskJson.newBuffer(1);
+        json.append("{\"id\":").append(id).append('}');
+        sendJson(exchange, creating ? CREATED : OK, json);
+    }
+
+    // --- Вызовы менеджера по типу задач обработчика ---
+
+    private List<? extends Task> getAll(TaskManager manager) {
+        switch (type) {
+            case EPIC:
+                return manager.getAllEpics();
+            case SUBTASK:
+                return manager.getAllSubtasks();
+            default:
+                return manager.getAllTasks();
+        }
+    }
+
+    private Task getById(TaskManager manager, int id) {
+        switch (type) {
+            case EPIC:
+                return manager.getEpicById(id);
+            case SUBTASK:
+                return manager.getSubtaskById(id);
+            default:
+                return manager.getTaskById(id);
+        }
+    }
+
+    private int create(TaskManager manager, Task task) {
+        switch (type) {
+            case EPIC:
+                return manager.createEpic((Epic) task);
+            case SUBTASK:
+                return manager.createSubtask((Subtask) task);
+            default:
+                return manager.createTask(task);
+        }
+    }
+
+    // Обновление несуществующей задачи менеджер молча пропускает, поэтому id проверяется заранее;
+    // проверка и обновление идут под одной блокировкой. -1 - задача не найдена
+    private int update(TaskManager manager, Task task) {
+        if (!manager.containsTask(type, task.getId())) {
+            return -1;
+        }
+        switch (type) {
+            case EPIC:
+                manager.updateEpic((Epic) task);
+                break;
+            case SUBTASK:
+                manager.updateSubtask((Subtask) task);
+                break;
+            default:
+                manager.updateTask(task);
+        }
+        return task.getId();
+    }
+
+    private void delete(HttpExchange exchange, String idText) throws IOException {
+        int id = parseId(idText);
+        withManager(manager -> {
+            deleteById(manager, id);
+            return null;
+        });
+        sendEmpty(exchange, OK);
+    }
+
+    private void deleteById(TaskManager manager, int id) {
+        switch (type) {
+            case EPIC:
+                manager.deleteEpicById(id);
+                break;
+            case SUBTASK:
+                manager.deleteSubtaskById(id);
+                break;
+            default:
+                manager.deleteTaskById(id);
+        }
+    }
+
+    // Нечисловой id не может принадлежать задаче
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practikum.util;
+
+import java.util.Arrays;
+
+/**
+ * Отображение int -> long на открытой адресации с линейным пробированием.
+ * Ключи и значения лежат в примитивных массивах - ни узлов, ни упаковки.
+ * Хеш устроен так же, как в {@link IntObjectHashMap}.
+ */
+public class IntLongHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final byte DELETED = 2;
+
+    private int[] keys;
+    private long[] values;
+    private byte[] states;
+    private int size;
+    private int deleted;
+
+    public IntLongHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public long get(int key, long defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public void put(int key, long value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if ((size + deleted + 1) * 2 > keys.length) {
+            rehash(capacityFor(size + 1));
+        }
+        int mask = keys.length - 1;
+        slot = indexFor(key, mask);
+        while (states[slot] == USED) {
+            slot = (slot + 1) & mask;
+        }
+        if (states[slot] == DELETED) {
+            deleted--;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        states[slot] = USED;
+        size++;
+    }
+
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        states[slot] = DELETED;
+        size--;
+        deleted++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(states, FREE);
+        size = 0;
+        deleted = 0;
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = indexFor(key, mask);
+        while (states[slot] != FREE) {
+            if (states[slot] == USED && keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        byte[] oldStates = states;
+
+        allocate(capacity);
+        deleted = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] != USED) {
+                continue;
+            }
+            int slot = indexFor(oldKeys[i], mask);
+            while (states[slot] == USED) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            states[slot] = USED;
+        }
+    }
+
+    // Разряды ключа выше маски перемешиваются, как в {@link LinkedIntSet}, и подмешиваются к младшим:
+    // id с шагом в степень двойки иначе легли бы в несколько ячеек и слились в длинные цепочки.
+    // У id меньше ёмкости старших разрядов нет - они остаются в своей ячейке и обходятся по возрастанию
+    private static int indexFor(int key, int mask) {
+        int hash = (key >>> Integer.bitCount(mask)) * 0x9E3779B9;
+        return (key ^ hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        states = new byte[capacity];
+    }
+
+    // Степень двойки с заполнением не больше половины
+    private static int capacityFor(int elements) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < elements * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,253 @@
+package ru.practikum.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Отображение int -> объект на открытой адресации с линейным пробированием.
+ * Ключи хранятся в {@code int[]}, значения - в параллельном массиве, поэтому
+ * поиск не упаковывает id в Integer, а запись не создаёт узлов.
+ * <p>
+ * Младшие разряды хеша - сам ключ, к ним подмешиваются перемешанные старшие:
+ * последовательные id из счётчика ложатся в соседние ячейки без коллизий, а обход идёт
+ * по возрастанию id, как у {@code HashMap<Integer, ...>} для небольших ключей; id с большим
+ * шагом при этом не собираются в цепочки. Значения {@code null} не допускаются.
+ */
+public class IntObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    // Метка удалённой ячейки: цепочка пробирования через неё не обрывается
+    private static final Object DELETED = new Object();
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int deleted;
+    private int modCount;
+    private Collection<V> valuesView;
+
+    public IntObjectHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null");
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            V previous = valueAt(slot);
+            values[slot] = value;
+            return previous;
+        }
+        insert(key, value);
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = valueAt(slot);
+        removeAt(slot);
+        return previous;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return valueAt(slot);
+        }
+        V value = factory.apply(key);
+        if (value != null) {
+            insert(key, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        deleted = 0;
+        modCount++;
+    }
+
+    // Живое представление значений; удаление через итератор поддерживается (removeIf)
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new ValueIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    IntObjectHashMap.this.clear();
+                }
+            };
+        }
+        return valuesView;
+    }
+
+    // --- Внутреннее устройство таблицы ---
+
+    private class ValueIterator implements Iterator<V> {
+        private int nextSlot = advance(0);
+        private int lastSlot = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < values.length;
+        }
+
+        @Override
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextSlot >= values.length) {
+                throw new NoSuchElementException();
+            }
+            lastSlot = nextSlot;
+            nextSlot = advance(nextSlot + 1);
+            return valueAt(lastSlot);
+        }
+
+        // Ячейка только помечается удалённой, поэтому порядок обхода не ломается
+        @Override
+        public void remove() {
+            if (lastSlot < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(lastSlot);
+            expectedModCount = modCount;
+            lastSlot = -1;
+        }
+
+        private int advance(int slot) {
+            while (slot < values.length && (values[slot] == null || values[slot] == DELETED)) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = indexFor(key, mask);
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (value != DELETED && keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int key, Object value) {
+        if ((size + deleted + 1) * 2 > keys.length) {
+            rehash(capacityFor(size + 1));
+        }
+        int mask = keys.length - 1;
+        int slot = indexFor(key, mask);
+        while (values[slot] != null && values[slot] != DELETED) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == DELETED) {
+            deleted--;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int slot) {
+        values[slot] = DELETED;
+        size--;
+        deleted++;
+        modCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    // Перестроение вычищает удалённые ячейки
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+        deleted = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value == null || value == DELETED) {
+                continue;
+            }
+            int slot = indexFor(oldKeys[i], mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = value;
+        }
+    }
+
+    // Разряды ключа выше маски перемешиваются, как в {@link LinkedIntSet}, и подмешиваются к младшим:
+    // id с шагом в степень двойки иначе легли бы в несколько ячеек и слились в длинные цепочки.
+    // У id меньше ёмкости старших разрядов нет - они остаются в своей ячейке и обходятся по возрастанию
+    private static int indexFor(int key, int mask) {
+        int hash = (key >>> Integer.bitCount(mask)) * 0x9E3779B9;
+        return (key ^ hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    // Степень двойки с заполнением не больше половины
+    private static int capacityFor(int elements) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < elements * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
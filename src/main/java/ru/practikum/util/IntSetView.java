@@ -0,0 +1,22 @@
+package ru.practikum.util;
+
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Представление множества int только для чтения - без копирования и упаковки в Integer.
+ */
+public interface IntSetView {
+
+    int size();
+
+    boolean isEmpty();
+
+    boolean contains(int value);
+
+    PrimitiveIterator.OfInt iterator();
+
+    void forEach(IntConsumer action);
+
+    int[] toArray();
+}
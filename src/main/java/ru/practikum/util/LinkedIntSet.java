@@ -0,0 +1,285 @@
+package ru.practikum.util;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int с порядком вставки на открытой адресации.
+ * Добавление, удаление и проверка - O(1), порядок обхода хранится двусвязным списком
+ * по индексам ячеек, удалённые ячейки помечаются и вычищаются при перестроении таблицы.
+ */
+public class LinkedIntSet implements IntSetView {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final byte DELETED = 2;
+    private static final int NONE = -1;
+
+    private int[] keys;
+    private byte[] states;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+    private int deleted;
+    private int modCount;
+    private IntSetView readOnlyView;
+
+    public LinkedIntSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public LinkedIntSet(LinkedIntSet original) {
+        allocate(capacityFor(original.size));
+        for (int slot = original.head; slot != NONE; slot = original.next[slot]) {
+            place(original.keys[slot]);
+        }
+        size = original.size;
+    }
+
+    public boolean add(int value) {
+        if (find(value) != NONE) {
+            return false;
+        }
+        if ((size + deleted + 1) * 2 > keys.length) {
+            rehash(capacityFor(size + 1));
+        }
+
+        int slot = indexFor(value);
+        while (states[slot] == USED) {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (states[slot] == DELETED) {
+            deleted--;
+        }
+        keys[slot] = value;
+        states[slot] = USED;
+        linkLast(slot);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = find(value);
+        if (slot == NONE) {
+            return false;
+        }
+        states[slot] = DELETED;
+        unlink(slot);
+        size--;
+        deleted++;
+        modCount++;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(states, FREE);
+        head = NONE;
+        tail = NONE;
+        size = 0;
+        deleted = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return find(value) != NONE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int slot = head;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return slot != NONE;
+            }
+
+            @Override
+            public int nextInt() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (slot == NONE) {
+                    throw new NoSuchElementException();
+                }
+                int value = keys[slot];
+                slot = next[slot];
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            action.accept(keys[slot]);
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            result[i++] = keys[slot];
+        }
+        return result;
+    }
+
+    // Представление только для чтения создаётся один раз и живёт вместе с множеством
+    public IntSetView asReadOnly() {
+        if (readOnlyView == null) {
+            readOnlyView = new IntSetView() {
+                @Override
+                public int size() {
+                    return LinkedIntSet.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return LinkedIntSet.this.isEmpty();
+                }
+
+                @Override
+                public boolean contains(int value) {
+                    return LinkedIntSet.this.contains(value);
+                }
+
+                @Override
+                public PrimitiveIterator.OfInt iterator() {
+                    return LinkedIntSet.this.iterator();
+                }
+
+                @Override
+                public void forEach(IntConsumer action) {
+                    LinkedIntSet.this.forEach(action);
+                }
+
+                @Override
+                public int[] toArray() {
+                    return LinkedIntSet.this.toArray();
+                }
+
+                @Override
+                public String toString() {
+                    return LinkedIntSet.this.toString();
+                }
+            };
+        }
+        return readOnlyView;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (slot != head) builder.append(", ");
+            builder.append(keys[slot]);
+        }
+        return builder.append(']').toString();
+    }
+
+    // --- Внутреннее устройство таблицы ---
+
+    private int find(int value) {
+        int mask = keys.length - 1;
+        int slot = indexFor(value);
+        while (states[slot] != FREE) {
+            if (states[slot] == USED && keys[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private int indexFor(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NONE) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+
+    // Перестроение в порядке вставки: заодно вычищает удалённые ячейки
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldNext = next;
+        int oldHead = head;
+
+        allocate(capacity);
+        deleted = 0;
+        for (int oldSlot = oldHead; oldSlot != NONE; oldSlot = oldNext[oldSlot]) {
+            place(oldKeys[oldSlot]);
+        }
+    }
+
+    // Вставка в конец порядка в свежую таблицу: без удалённых ячеек и без проверки дубликатов
+    private void place(int value) {
+        int mask = keys.length - 1;
+        int slot = indexFor(value);
+        while (states[slot] == USED) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        states[slot] = USED;
+        linkLast(slot);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        states = new byte[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        head = NONE;
+        tail = NONE;
+    }
+
+    // Степень двойки с заполнением не больше половины
+    private static int capacityFor(int elements) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < elements * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practikum.events;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    @Test
+    void shouldRejectWhenFullAndWrapAround() {
+        EventRing ring = new EventRing(3);
+        assertEquals(4, ring.capacity(), "Ёмкость округляется до степени двойки");
+
+        List<TaskEvent> drained = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.offer(event(round * 4 + i)));
+            }
+            assertFalse(ring.offer(event(-1)), "В полный буфер событие не помещается");
+            assertEquals(3, ring.drainTo(drained, 3));
+            assertEquals(1, ring.drainTo(drained, 10));
+            assertTrue(ring.isEmpty());
+        }
+
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i).getTaskId(), "Порядок событий сохраняется");
+        }
+    }
+
+    private static TaskEvent event(int id) {
+        Task task = new Task("Task", "Description", Status.NEW);
+        task.setId(id);
+        return TaskEvent.created(task);
+    }
+}
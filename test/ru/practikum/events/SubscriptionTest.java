@@ -0,0 +1,127 @@
+package ru.practikum.events;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.manager.InMemoryTaskManager;
+import ru.practikum.model.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionTest {
+
+    @Test
+    void shouldDeliverTypedEventsInOrder() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription subscription = manager.subscribe(received::addAll);
+
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epicId));
+        Subtask changed = new Subtask("Renamed", "Description", Status.DONE, epicId);
+        changed.setId(subtaskId);
+        manager.updateSubtask(changed);
+        manager.deleteEpicById(epicId);
+        subscription.close();
+
+        List<TaskEvent.Kind> kinds = new ArrayList<>();
+        for (TaskEvent event : received) {
+            kinds.add(event.getKind());
+        }
+        assertEquals(List.of(TaskEvent.Kind.CREATED, TaskEvent.Kind.CREATED, TaskEvent.Kind.EPIC_STATUS_CHANGED,
+                TaskEvent.Kind.UPDATED, TaskEvent.Kind.DELETED, TaskEvent.Kind.DELETED), kinds);
+        assertEquals(Status.DONE, received.get(2).getTask().getStatus());
+        assertEquals("Renamed", received.get(3).getTask().getName());
+        assertEquals(TaskType.EPIC, received.get(5).getTaskType());
+        assertNull(received.get(5).getTask());
+    }
+
+    @Test
+    void blockingSubscriptionShouldKeepDerivedViewExact() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Map<Integer, String> names = new HashMap<>();
+        int[] largestBatch = new int[1];
+        Subscription subscription = manager.subscribe(events -> {
+            largestBatch[0] = Math.max(largestBatch[0], events.size());
+            for (TaskEvent event : events) {
+                if (event.getKind() == TaskEvent.Kind.DELETED) {
+                    names.remove(event.getTaskId());
+                } else {
+                    names.put(event.getTaskId(), event.getTask().getName());
+                }
+            }
+        }, 8, 4, OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 1000; i++) {
+            int id = manager.createTask(new Task("Task " + i, "Description", Status.NEW));
+            if (i % 3 == 0) {
+                manager.deleteTaskById(id);
+            }
+        }
+        subscription.close();
+
+        assertEquals(0, subscription.getDroppedEvents());
+        assertTrue(largestBatch[0] <= 4, "Пачка не больше maxBatch");
+        assertEquals(manager.getAllTasks().size(), names.size(), "Представление совпадает с менеджером");
+        for (Task task : manager.getAllTasks()) {
+            assertEquals(task.getName(), names.get(task.getId()));
+        }
+    }
+
+    @Test
+    void defaultSubscriptionShouldNotStallMutations() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        CountDownLatch release = new CountDownLatch(1);
+        Subscription subscription = manager.subscribe(events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < EventPublisher.DEFAULT_CAPACITY * 2; i++) {
+                manager.createTask(new Task("Task " + i, "Description", Status.NEW));
+            }
+        }, "Зависший подписчик по умолчанию не должен задерживать мутации");
+        release.countDown();
+        subscription.close();
+
+        assertTrue(subscription.getDroppedEvents() > 0);
+    }
+
+    @Test
+    void droppingSubscriptionShouldSignalOverflow() throws InterruptedException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        CountDownLatch release = new CountDownLatch(1);
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription subscription = manager.subscribe(events -> {
+            received.addAll(events);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2, 16, OverflowPolicy.DROP);
+
+        for (int i = 0; i < 20; i++) {
+            manager.createTask(new Task("Task " + i, "Description", Status.NEW));
+        }
+        release.countDown();
+        subscription.close();
+
+        assertTrue(subscription.getDroppedEvents() > 0, "Медленный подписчик теряет события");
+        assertTrue(received.stream().anyMatch(event -> event.getKind() == TaskEvent.Kind.OVERFLOW),
+                "Подписчик узнаёт о потере событий");
+        assertEquals(20, subscription.getDroppedEvents() + received.stream()
+                .filter(event -> event.getKind() == TaskEvent.Kind.CREATED).count());
+    }
+}
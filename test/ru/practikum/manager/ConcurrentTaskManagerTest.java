@@ -0,0 +1,188 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void shouldCreateSubtasksConcurrentlyWithoutLosingUpdates() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int perThread = 200;
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            epicIds.add(manager.createEpic(new Epic("Epic " + i, "Description")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    int slot = thread * perThread + i;
+                    int epicId = epicIds.get(slot % epicIds.size());
+                    manager.createSubtask(new Subtask("Subtask " + slot, "Description", Status.DONE, epicId,
+                            base.plusHours(slot), Duration.ofMinutes(30)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(THREADS * perThread, manager.getAllSubtasks().size(), "Ни одна подзадача не должна потеряться");
+        assertEquals(THREADS * perThread, manager.getPrioritizedTasks().size());
+        for (int epicId : epicIds) {
+            Epic epic = manager.getEpicById(epicId);
+            assertEquals(THREADS * perThread / epicIds.size(), epic.getSubtaskIds().size());
+            assertEquals(Status.DONE, epic.getStatus(), "Статус эпика должен учитывать все подзадачи");
+        }
+    }
+
+    @Test
+    void shouldAllowOnlyOneTaskInContendedSlot() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS * 4; t++) {
+            int shift = t % 30;
+            futures.add(executor.submit(() -> {
+                try {
+                    manager.createTask(new Task("Task", "Description", Status.NEW,
+                            start.plusMinutes(shift), Duration.ofMinutes(30)));
+                    created.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get(), "В пересекающемся окне должна создаться ровно одна задача");
+        assertEquals(THREADS * 4 - 1, rejected.get());
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldNotResurrectTasksDeletedDuringUpdate() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < 200; round++) {
+                int id = manager.createTask(new Task("Task", "Description", Status.NEW,
+                        start, Duration.ofMinutes(30)));
+                AtomicBoolean deleted = new AtomicBoolean();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS - 1; t++) {
+                    int shift = t;
+                    futures.add(executor.submit(() -> {
+                        while (!deleted.get()) {
+                            Task task = new Task("Task", "Updated", Status.IN_PROGRESS,
+                                    start.plusMinutes(shift), Duration.ofMinutes(30));
+                            task.setId(id);
+                            manager.updateTask(task);
+                        }
+                    }));
+                }
+                futures.add(executor.submit(() -> {
+                    manager.deleteTaskById(id);
+                    deleted.set(true);
+                }));
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                assertTrue(manager.getAllTasks().isEmpty(), "Удалённая задача не должна вернуться после обновления");
+                assertTrue(manager.getPrioritizedTasks().isEmpty());
+                assertDoesNotThrow(() -> manager.createTask(new Task("Probe", "Description", Status.NEW,
+                        start, Duration.ofHours(1))), "Интервал удалённой задачи должен освободиться");
+                manager.deleteTasks();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReturnStableEpicSnapshotsWhileSubtasksChange() throws Exception {
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            AtomicBoolean done = new AtomicBoolean();
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS / 2; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int id = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epicId));
+                        manager.deleteSubtaskById(id);
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < THREADS / 2; t++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        Epic epic = manager.getEpicById(epicId);
+                        List<Integer> seen = epic.getSubtaskIds();
+                        for (int spin = 0; spin < 1_000; spin++) {
+                            Thread.onSpinWait();
+                        }
+                        assertEquals(seen, epic.getSubtaskIds(), "Полученный эпик не должен меняться вместе с менеджером");
+
+                        for (Epic listed : manager.getAllEpics()) {
+                            assertEquals(listed.getSubtaskIds().isEmpty() ? Status.NEW : Status.DONE, listed.getStatus());
+                        }
+                        for (Subtask subtask : manager.getSubtasksByEpicId(epicId)) {
+                            assertEquals(epicId, subtask.getEpicId());
+                        }
+                    }
+                    manager.getHistory();
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Epic epic = manager.getEpicById(epicId);
+        assertTrue(epic.getSubtaskIds().isEmpty());
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+}
@@ -2,7 +2,10 @@ package ru.practikum.manager;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.exception.ManagerSaveException;
 import ru.practikum.model.*;
+import ru.practikum.search.TextIndex;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,6 +14,8 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -114,6 +119,17 @@ class FileBackedTaskManagerTest {
         assertTrue(manager.getAllSubtasks().isEmpty(), "Менеджер должен быть пустым для пустого файла");
     }
 
+    @Test
+    void testLoadRejectsOverlappingTasks() throws IOException {
+        File file = tempDir.resolve("overlap.csv").toFile();
+        Files.writeString(file.toPath(), "id,type,name,status,description,startTime,duration,epic\n"
+                + "1,TASK,Task 1,NEW,Description,2024-01-01T10:00:00,60,\n"
+                + "2,TASK,Task 2,NEW,Description,2024-01-01T10:00:00,30,\n");
+
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file),
+                "Пересекающиеся задачи в снимке не должны молча перезаписывать друг друга в индексе");
+    }
+
     @Test
     void testPrioritizedTasksRestoration() throws IOException {
         File file = tempDir.resolve("prioritized.csv").toFile();
@@ -137,4 +153,293 @@ class FileBackedTaskManagerTest {
         assertEquals("Early Task", prioritized.get(0).getName(), "Первой должна быть ранняя задача");
         assertEquals("Late Task", prioritized.get(1).getName(), "Второй должна быть поздняя задача");
     }
+
+    @Test
+    void testBinarySnapshotRoundTrip() {
+        File file = tempDir.resolve("snapshot.bin").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, SnapshotFormat.BINARY);
+
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int taskId = manager.createTask(new Task("Задача, с \"кавычками\"", "Описание\nв две строки",
+                Status.IN_PROGRESS, startTime, Duration.ofMinutes(45)));
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epicId,
+                startTime.plusHours(2), Duration.ofMinutes(30)));
+
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(file));
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        Task task = loaded.getTaskById(taskId);
+        assertEquals("Задача, с \"кавычками\"", task.getName(), "Имя должно восстанавливаться без экранирования");
+        assertEquals("Описание\nв две строки", task.getDescription());
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+        assertEquals(startTime, task.getStartTime());
+        assertEquals(Duration.ofMinutes(45), task.getDuration());
+
+        Subtask subtask = loaded.getSubtaskById(subtaskId);
+        assertEquals(epicId, subtask.getEpicId());
+        assertEquals(Status.DONE, loaded.getEpicById(epicId).getStatus(), "Статус эпика пересчитывается при загрузке");
+        assertEquals(2, loaded.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testConvertBetweenCsvAndBinary() {
+        File csv = tempDir.resolve("source.csv").toFile();
+        File binary = tempDir.resolve("converted.bin").toFile();
+        File csvAgain = tempDir.resolve("converted.csv").toFile();
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(csv);
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        for (int i = 0; i < 100; i++) {
+            manager.createSubtask(new Subtask("Subtask " + i, "Description", Status.NEW, epicId,
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        FileBackedTaskManager.convert(csv, binary, SnapshotFormat.BINARY);
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(binary));
+        assertTrue(binary.length() < csv.length(), "Двоичный снимок должен быть компактнее CSV");
+
+        FileBackedTaskManager.convert(binary, csvAgain, SnapshotFormat.CSV);
+        assertEquals(SnapshotFormat.CSV, FileBackedTaskManager.detectFormat(csvAgain));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(csvAgain);
+        assertEquals(100, loaded.getAllSubtasks().size());
+        assertEquals(manager.getSubtasksByEpicId(epicId), loaded.getSubtasksByEpicId(epicId));
+    }
+
+    @Test
+    void testBinarySnapshotRejectsSubMinuteStartTime() {
+        File file = tempDir.resolve("seconds.bin").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, SnapshotFormat.BINARY);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int id = manager.createTask(new Task("Task", "Description", Status.NEW, start, Duration.ofMinutes(5)));
+        long savedLength = file.length();
+
+        assertThrows(ManagerSaveException.class, () -> manager.createTask(new Task("Task", "Description",
+                Status.NEW, start.plusHours(1).plusSeconds(30), Duration.ofMinutes(5))));
+        Task moved = new Task("Task", "Description", Status.NEW, start.plusSeconds(30), Duration.ofMinutes(5));
+        moved.setId(id);
+        assertThrows(ManagerSaveException.class, () -> manager.updateTask(moved));
+
+        assertEquals(1, manager.getAllTasks().size(), "Отвергнутая задача не должна попасть в память");
+        assertEquals(start, manager.getTaskById(id).getStartTime());
+        assertEquals(savedLength, file.length(), "Снимок не должен быть испорчен");
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        manager.createTask(new Task("Next", "Description", Status.NEW, start.plusHours(2), Duration.ofMinutes(5)));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file).getAllTasks().size(),
+                "Следующие сохранения должны работать");
+    }
+
+    @Test
+    void testLoadedBinarySnapshotStaysBinary() {
+        File file = tempDir.resolve("keep.bin").toFile();
+        new FileBackedTaskManager(file, SnapshotFormat.BINARY)
+                .createTask(new Task("Task", "Description", Status.NEW));
+
+        FileBackedTaskManager.loadFromFile(file).createTask(new Task("Second", "Description", Status.NEW));
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(file),
+                "Загрузка без формата не должна переписывать двоичный снимок в CSV");
+
+        FileBackedTaskManager.loadFromFileParallel(file).createTask(new Task("Third", "Description", Status.NEW));
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(file));
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    void testBinarySnapshotRejectsUnknownCodes() throws IOException {
+        File file = tempDir.resolve("codes.bin").toFile();
+        new FileBackedTaskManager(file, SnapshotFormat.BINARY)
+                .createTask(new Task("Task", "Description", Status.NEW));
+        byte[] snapshot = Files.readAllBytes(file.toPath());
+
+        // Заголовок - 5 байт, затем тип (1 байт), id (4 байта) и статус (1 байт) первой записи
+        byte[] badType = snapshot.clone();
+        badType[5] = 42;
+        Files.write(file.toPath(), badType);
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file));
+
+        byte[] badStatus = snapshot.clone();
+        badStatus[10] = 42;
+        Files.write(file.toPath(), badStatus);
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file));
+    }
+
+    @Test
+    void testFailedBinaryWriteKeepsPreviousSnapshot() throws IOException {
+        File target = tempDir.resolve("target.bin").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(target, SnapshotFormat.BINARY);
+        manager.createTask(new Task("Task", "Description", Status.NEW));
+        File source = tempDir.resolve("seconds.csv").toFile();
+        Files.writeString(source.toPath(), "id,type,name,status,description,startTime,duration,epic\n"
+                + "1,TASK,Task,NEW,Description,2024-01-01T10:00:30,5,\n");
+
+        assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.convert(source, target, SnapshotFormat.BINARY));
+
+        assertEquals(1, FileBackedTaskManager.loadFromFile(target).getAllTasks().size(),
+                "Прежний снимок должен остаться целым");
+        assertFalse(new File(target.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    void testParallelLoadMatchesSequentialLoad() {
+        File file = tempDir.resolve("parallel.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int e = 0; e < 20; e++) {
+            int epicId = manager.createEpic(new Epic("Epic " + e, "Description"));
+            for (int i = 0; i < 10; i++) {
+                Status status = i % 3 == 0 ? Status.DONE : Status.NEW;
+                manager.createSubtask(new Subtask("Subtask " + i, "Описание, с запятой", status, epicId,
+                        start.plusHours(e * 10L + i), Duration.ofMinutes(30)));
+            }
+        }
+        manager.createTask(new Task("Task", "Description", Status.NEW));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(file);
+            FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFileParallel(file, pool);
+
+            assertEquals(sequential.getAllTasks(), parallel.getAllTasks());
+            assertEquals(sequential.getAllSubtasks(), parallel.getAllSubtasks());
+            assertEquals(sequential.getPrioritizedTasks(), parallel.getPrioritizedTasks());
+            for (Epic epic : sequential.getAllEpics()) {
+                Epic loaded = parallel.getEpicById(epic.getId());
+                assertEquals(epic.getSubtaskIds(), loaded.getSubtaskIds(), "Порядок подзадач эпика должен сохраняться");
+                assertEquals(epic.getStatus(), loaded.getStatus());
+                assertEquals(epic.getStartTime(), loaded.getStartTime());
+                assertEquals(epic.getEndTime(), loaded.getEndTime());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLazyLoadReadsTextFromFileOnDemand() {
+        File file = tempDir.resolve("lazy.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        String longDescription = "Длинное, описание \"с кавычками\"\n".repeat(50);
+        for (int i = 0; i < 20; i++) {
+            manager.createTask(new Task("Task " + i, i == 7 ? longDescription : "Description " + i, Status.NEW,
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 4);
+
+        Task task = lazy.getAllTasks().get(7);
+        assertTrue(task.hasLazyText(), "Текст не должен загружаться вместе с задачей");
+        assertEquals("Task 7", task.getName());
+        assertEquals(longDescription, task.getDescription(), "Длинная запись должна дочитываться целиком");
+        for (Task each : lazy.getAllTasks()) {
+            assertEquals("Task " + (each.getId() - 1), each.getName(), "Вытеснение из кэша не должно терять текст");
+        }
+        assertEquals(20, lazy.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testLazyManagerRewritesFileAndKeepsTextConsistent() {
+        File file = tempDir.resolve("lazy-save.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int epicId = manager.createEpic(new Epic("Epic", "Epic description"));
+        int subtaskId = manager.createSubtask(new Subtask("Subtask", "Описание, с запятой", Status.NEW, epicId));
+
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(file, 2);
+        // Кэшируем старый текст, затем меняем его
+        assertEquals("Subtask", lazy.getSubtaskById(subtaskId).getName());
+        Subtask updated = new Subtask("Новое имя", "Новое описание", Status.DONE, epicId);
+        updated.setId(subtaskId);
+        lazy.updateSubtask(updated);
+        int taskId = lazy.createTask(new Task("Task", "Description", Status.NEW));
+
+        Subtask stored = lazy.getAllSubtasks().get(0);
+        assertTrue(stored.hasLazyText(), "После сохранения текст снова отпускается из памяти");
+        assertEquals("Новое имя", stored.getName(), "Кэш не должен отдавать старый текст");
+        assertEquals("Новое описание", stored.getDescription());
+        assertEquals("Epic description", lazy.getAllEpics().get(0).getDescription());
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals("Новое имя", reloaded.getSubtaskById(subtaskId).getName());
+        assertEquals("Task", reloaded.getTaskById(taskId).getName());
+        assertEquals(Status.DONE, reloaded.getEpicById(epicId).getStatus());
+    }
+
+    @Test
+    void statusIndexShouldBeRestoredOnLoad() {
+        File file = tempDir.resolve("status.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epicId));
+        manager.createTask(new Task("Task", "Description", Status.IN_PROGRESS));
+
+        for (FileBackedTaskManager loaded : List.of(FileBackedTaskManager.loadFromFile(file),
+                FileBackedTaskManager.loadFromFileParallel(file))) {
+            assertEquals(1, loaded.countTasks(TaskType.EPIC, Status.DONE));
+            assertEquals(1, loaded.countTasks(TaskType.SUBTASK, Status.DONE));
+            assertEquals(1, loaded.getTasksByStatus(TaskType.TASK, Status.IN_PROGRESS).size());
+        }
+    }
+
+    @Test
+    void searchIndexShouldBeSavedAndRebuiltWhenStale() throws IOException {
+        File file = tempDir.resolve("search.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int taskId = manager.createTask(new Task("Написать отчёт", "Квартальный", Status.NEW));
+        File indexFile = new File(file.getPath() + ".idx");
+        assertFalse(indexFile.exists(), "Индекс не пишется на каждую мутацию");
+        manager.saveSearchIndex();
+        assertTrue(indexFile.exists(), "Индекс сохраняется рядом со снимком");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(taskId, loaded.searchTasks("отч", 10).get(0).getId());
+
+        // Снимок изменён в обход менеджера - индекс от него не принимается
+        Files.writeString(file.toPath(), Files.readString(file.toPath()).replace("Написать отчёт", "Позвонить"));
+        loaded = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(loaded.searchTasks("отч", 10).isEmpty());
+        assertEquals(taskId, loaded.searchTasks("позвон", 10).get(0).getId());
+    }
+
+    @Test
+    void searchIndexShouldBeRejectedForSameLengthEditWithSameModifiedTime() throws IOException {
+        File file = tempDir.resolve("search-stamp.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int taskId = manager.createTask(new Task("Alpha", "Description", Status.NEW));
+        manager.saveSearchIndex();
+        long modified = file.lastModified();
+
+        // Снимок записан, а индекс - нет: длина и время изменения совпадают со старой меткой
+        Files.writeString(file.toPath(), Files.readString(file.toPath()).replace("Alpha", "Omega"));
+        assertTrue(file.setLastModified(modified));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(loaded.searchTasks("alpha", 10).isEmpty(), "Устаревший индекс не должен приниматься");
+        assertEquals(taskId, loaded.searchTasks("omega", 10).get(0).getId());
+    }
+
+    @Test
+    void searchIndexShouldBeStampedWithChecksumComputedWhileWriting() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            File file = tempDir.resolve("stamp-" + format).toFile();
+            FileBackedTaskManager manager = new FileBackedTaskManager(file, format);
+            manager.createTask(new Task("Задача", "Описание", Status.NEW));
+            manager.saveSearchIndex();
+            assertStampMatches(file);
+        }
+        File lazyFile = tempDir.resolve("stamp-lazy.csv").toFile();
+        new FileBackedTaskManager(lazyFile).createTask(new Task("Задача", "Описание", Status.NEW));
+        FileBackedTaskManager lazy = FileBackedTaskManager.loadLazily(lazyFile, 4);
+        lazy.createTask(new Task("Ленивая", "Описание", Status.NEW));
+        lazy.saveSearchIndex();
+        assertStampMatches(lazyFile);
+    }
+
+    private static void assertStampMatches(File file) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(Files.readAllBytes(file.toPath()));
+        assertTrue(new TextIndex().read(new File(file.getPath() + ".idx"), file.length(), crc.getValue()),
+                "Метка индекса должна совпадать с CRC32C записанного снимка");
+    }
 }
@@ -0,0 +1,111 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.model.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitTaskManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldCoalesceMutationsUntilExplicitFlush() {
+        File file = tempDir.resolve("group.csv").toFile();
+
+        try (GroupCommitTaskManager manager = GroupCommitTaskManager.create(file, Duration.ofHours(1), 1_000)) {
+            int epicId = manager.createEpic(new Epic("Epic", "Description"));
+            for (int i = 0; i < 10; i++) {
+                manager.createSubtask(new Subtask("Subtask " + i, "Description", Status.NEW, epicId));
+            }
+
+            assertFalse(file.exists(), "До сброса файл не должен записываться");
+            assertEquals(11, manager.getPendingMutations());
+
+            manager.flush();
+            assertTrue(file.exists(), "После flush() снимок должен быть записан");
+            assertTrue(new File(file.getPath() + ".idx").exists(), "Сброс пишет и поисковый индекс");
+            assertEquals(11, manager.getLastFlushMutations(), "Один сброс должен поглотить все мутации");
+            assertEquals(1, manager.getFlushCount());
+            assertEquals(0, manager.getPendingMutations());
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(10, loaded.getAllSubtasks().size());
+    }
+
+    @Test
+    void shouldFlushInBackgroundWhenThresholdReached() throws InterruptedException {
+        File file = tempDir.resolve("threshold.csv").toFile();
+
+        try (GroupCommitTaskManager manager = GroupCommitTaskManager.create(file, Duration.ofHours(1), 5)) {
+            for (int i = 0; i < 5; i++) {
+                manager.createTask(new Task("Task " + i, "Description", Status.NEW));
+            }
+
+            for (int i = 0; i < 100 && manager.getFlushCount() == 0; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, manager.getFlushCount(), "Порог мутаций должен запустить фоновую запись");
+            assertTrue(file.exists());
+        }
+    }
+
+    @Test
+    void shouldFlushPendingMutationsOnClose() {
+        File file = tempDir.resolve("close.csv").toFile();
+
+        GroupCommitTaskManager manager = GroupCommitTaskManager.create(file, Duration.ofHours(1), 1_000);
+        manager.createTask(new Task("Task", "Description", Status.NEW));
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllTasks().size(), "close() должен записать накопленные мутации");
+    }
+
+    @Test
+    void shouldNotCountNoOpMutations() {
+        File file = tempDir.resolve("noop.csv").toFile();
+
+        try (GroupCommitTaskManager manager = GroupCommitTaskManager.create(file, Duration.ofHours(1), 1_000)) {
+            manager.createTask(new Task("Task", "Description", Status.NEW));
+
+            Task missing = new Task("Missing", "Description", Status.NEW);
+            missing.setId(999);
+            manager.updateTask(missing);
+            manager.deleteTaskById(999);
+            manager.deleteEpicById(999);
+
+            assertEquals(1, manager.getPendingMutations(), "Вызовы без изменений не должны считаться мутациями");
+            manager.flush();
+            assertEquals(1, manager.getLastFlushMutations());
+        }
+    }
+
+    @Test
+    void shouldRejectNonPositiveFlushInterval() {
+        File file = tempDir.resolve("interval.csv").toFile();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GroupCommitTaskManager.create(file, Duration.ZERO, 10));
+    }
+
+    @Test
+    void shouldSaveSynchronouslyAfterClose() {
+        File file = tempDir.resolve("after-close.csv").toFile();
+
+        GroupCommitTaskManager manager = GroupCommitTaskManager.create(file, Duration.ofHours(1), 1);
+        manager.close();
+        manager.createTask(new Task("Task", "Description", Status.NEW));
+
+        assertEquals(0, manager.getPendingMutations());
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllTasks().size(), "После close() мутация должна сразу попасть в файл");
+    }
+}
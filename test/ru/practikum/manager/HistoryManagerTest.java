@@ -1,6 +1,7 @@
 package ru.practikum.manager;
 
 import org.junit.jupiter.api.Test;
+import ru.practikum.model.Epic;
 import ru.practikum.model.Task;
 import ru.practikum.model.Status;
 
@@ -97,4 +98,108 @@ class HistoryManagerTest {
         assertEquals(task1, history.get(0), "Первая задача не совпадает.");
         assertEquals(task2, history.get(1), "Вторая задача не совпадает.");
     }
+
+    @Test
+    void historySnapshotShouldBeReusedUntilChange() {
+        HistoryManager historyManager = new InMemoryHistoryManager();
+        Task task = new Task("Task", "Description", Status.NEW);
+        task.setId(1);
+        historyManager.add(task);
+
+        List<Task> first = historyManager.getHistory();
+        assertSame(first, historyManager.getHistory(), "Без изменений снимок не должен пересобираться");
+        assertThrows(UnsupportedOperationException.class, () -> first.add(task), "Снимок должен быть неизменяемым");
+
+        historyManager.remove(1);
+        assertNotSame(first, historyManager.getHistory());
+        assertEquals(1, first.size(), "Выданный ранее снимок не меняется");
+        assertTrue(historyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void historyShouldKeepOrderWhenNodesAreRecycled() {
+        HistoryManager historyManager = new InMemoryHistoryManager();
+        for (int round = 0; round < 3; round++) {
+            for (int id = 1; id <= 100; id++) {
+                Task task = new Task("Task " + id, "Description", Status.NEW);
+                task.setId(id);
+                historyManager.add(task);
+            }
+            for (int id = 1; id <= 100; id += 2) {
+                historyManager.remove(id);
+            }
+        }
+        Task again = new Task("Task 2", "Description", Status.NEW);
+        again.setId(2);
+        historyManager.add(again);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(50, history.size());
+        assertEquals(4, history.get(0).getId());
+        assertEquals(100, history.get(48).getId());
+        assertEquals(2, history.get(49).getId(), "Повторный просмотр переносит задачу в конец");
+    }
+
+    @Test
+    void boundedHistoryShouldEvictLeastRecentlyViewed() {
+        HistoryManager historyManager = Managers.getDefaultHistory(3);
+        Task[] tasks = new Task[5];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Task " + i, "Description", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+
+        historyManager.add(tasks[0]);
+        historyManager.add(tasks[1]);
+        historyManager.add(tasks[2]);
+        historyManager.add(tasks[0]); // повторный просмотр спасает задачу 1 от вытеснения
+        historyManager.add(tasks[3]);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(List.of(tasks[2], tasks[0], tasks[3]), history, "Вытесняется давнее всех просмотренная задача");
+
+        for (int round = 0; round < 1_000; round++) {
+            historyManager.add(tasks[round % tasks.length]);
+        }
+        assertEquals(3, historyManager.getHistory().size(), "Размер истории не должен превышать ограничение");
+    }
+
+    @Test
+    void unchangedTaskShouldReuseHistorySnapshot() {
+        HistoryManager historyManager = new InMemoryHistoryManager();
+        Epic epic = new Epic("Epic", "Description");
+        epic.setId(1);
+        for (int id = 2; id < 1_000; id++) {
+            epic.addSubtaskId(id);
+        }
+        Task other = new Task("Task", "Description", Status.NEW);
+        other.setId(1_000);
+
+        historyManager.add(epic);
+        Task firstView = historyManager.getHistory().get(0);
+        historyManager.add(other);
+        historyManager.add(epic);
+
+        assertSame(firstView, historyManager.getHistory().get(1), "Неизменённая задача не должна копироваться заново");
+
+        epic.setStatus(Status.DONE);
+        historyManager.add(epic);
+        Task changedView = historyManager.getHistory().get(1);
+        assertNotSame(firstView, changedView, "После изменения нужен новый снимок");
+        assertEquals(Status.DONE, changedView.getStatus());
+        assertEquals(Status.NEW, firstView.getStatus(), "Старый снимок хранит просмотренную версию");
+    }
+
+    @Test
+    void repeatedViewOfLastTaskShouldNotRebuildHistory() {
+        HistoryManager historyManager = new InMemoryHistoryManager();
+        Task task = new Task("Task", "Description", Status.NEW);
+        task.setId(1);
+
+        historyManager.add(task);
+        List<Task> history = historyManager.getHistory();
+        historyManager.add(task);
+
+        assertSame(history, historyManager.getHistory());
+    }
 }
@@ -1,6 +1,14 @@
 package ru.practikum.manager;
 
 import org.junit.jupiter.api.Test;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,4 +27,65 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         // Пример специфичного теста для InMemoryTaskManager
         assertNotNull(manager);
     }
+
+    @Test
+    void bulkCreateShouldBeAllOrNothing() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Existing", "Description", Status.NEW, start, Duration.ofHours(1)));
+
+        // Пересечение внутри пакета
+        assertThrows(IllegalArgumentException.class, () -> manager.createAll(List.of(
+                new Task("A", "Description", Status.NEW, start.plusHours(2), Duration.ofHours(1)),
+                new Task("B", "Description", Status.NEW, start.plusHours(2).plusMinutes(30), Duration.ofHours(1)))));
+        // Пересечение с существующей задачей
+        assertThrows(IllegalArgumentException.class, () -> manager.createAll(List.of(
+                new Task("C", "Description", Status.NEW, start.plusHours(5), Duration.ofHours(1)),
+                new Task("D", "Description", Status.NEW, start.plusMinutes(30), Duration.ofHours(1)))));
+
+        assertEquals(1, manager.getAllTasks().size(), "Ошибочный пакет не должен ничего создать");
+        assertEquals(1, manager.getPrioritizedTasks().size());
+        // Индекс времени не должен удерживать интервалы отклонённых пакетов
+        manager.createTask(new Task("Free", "Description", Status.NEW, start.plusHours(2), Duration.ofHours(1)));
+    }
+
+    @Test
+    void bulkUpdateShouldRescheduleAndRecomputeEpicsOnce() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        List<Integer> ids = manager.createAll(List.of(
+                new Subtask("First", "Description", Status.NEW, epicId, start, Duration.ofHours(1)),
+                new Subtask("Second", "Description", Status.NEW, epicId, start.plusHours(1), Duration.ofHours(1))));
+
+        // Задачи меняются местами: по одной такое обновление упёрлось бы в пересечение
+        Subtask first = new Subtask("First", "Description", Status.DONE, epicId,
+                start.plusHours(1), Duration.ofHours(1));
+        first.setId(ids.get(0));
+        Subtask second = new Subtask("Second", "Description", Status.DONE, epicId, start, Duration.ofHours(1));
+        second.setId(ids.get(1));
+        manager.updateAll(List.of(first, second));
+
+        Epic epic = manager.getEpicById(epicId);
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(start, epic.getStartTime());
+        assertEquals((int) ids.get(1), manager.getPrioritizedTasks().get(0).getId());
+
+        Subtask duplicate = new Subtask("First", "Description", Status.NEW, epicId);
+        duplicate.setId(ids.get(0));
+        assertThrows(IllegalArgumentException.class, () -> manager.updateAll(List.of(duplicate, duplicate)));
+        assertEquals(Status.DONE, manager.getSubtaskById(ids.get(0)).getStatus());
+    }
+
+    @Test
+    void scheduleAllShouldCreateNothingWhenBatchFails() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task task = new Task("Task", "Description", Status.NEW, null, Duration.ofMinutes(30));
+        Subtask orphan = new Subtask("Orphan", "Description", Status.NEW, 999, null, Duration.ofMinutes(30));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.scheduleAll(List.of(task, orphan), base));
+
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertNull(task.getStartTime(), "Время задачам из отвергнутого пакета не назначается");
+        assertNull(orphan.getStartTime());
+        assertEquals(base, manager.findFreeSlot(base, Duration.ofMinutes(30)));
+    }
 }
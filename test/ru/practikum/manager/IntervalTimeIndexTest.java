@@ -0,0 +1,58 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTimeIndexTest extends TimeIndexTest<IntervalTimeIndex> {
+
+    @Override
+    protected IntervalTimeIndex createIndex() {
+        return new IntervalTimeIndex();
+    }
+
+    @Test
+    void shouldCheckOverlapsWithMinutePrecision() {
+        TimeIndex index = new IntervalTimeIndex();
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 10, 7);
+
+        index.occupy(base, base.plusMinutes(13)); // 10:07-10:20
+
+        assertTrue(index.isFree(base.plusMinutes(13), base.plusMinutes(23)), "10:20-10:30 касается, но не пересекается");
+        assertTrue(index.isFree(base.minusMinutes(7), base), "10:00-10:07 касается, но не пересекается");
+        assertFalse(index.isFree(base.plusMinutes(12), base.plusMinutes(14)), "10:19-10:21 пересекается");
+        assertFalse(index.isFree(base.minusHours(1), base.plusHours(1)), "Охватывающий интервал пересекается");
+    }
+
+    @Test
+    void managerShouldUseExactOverlapsOutsideCurrentYear() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(new IntervalTimeIndex());
+        LocalDateTime start = LocalDateTime.now().plusYears(5).withHour(10).withMinute(7);
+
+        manager.createTask(new Task("Task 1", "Description", Status.NEW, start, Duration.ofMinutes(13)));
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 2", "Description", Status.NEW,
+                start.plusMinutes(13), Duration.ofMinutes(10))));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(new Task("Task 3", "Description",
+                Status.NEW, start.plusMinutes(12), Duration.ofMinutes(2))));
+    }
+
+    @Test
+    void shouldFindEarliestGapOfGivenDuration() {
+        IntervalTimeIndex index = new IntervalTimeIndex();
+        LocalDateTime base = LocalDateTime.of(2024, 5, 10, 10, 0);
+        index.occupy(base, base.plusMinutes(30));                     // 10:00-10:30
+        index.occupy(base.plusMinutes(40), base.plusMinutes(60));     // 10:40-11:00
+        index.occupy(base.plusMinutes(60), base.plusMinutes(90));     // 11:00-11:30
+
+        assertEquals(base.minusHours(1), index.findFreeSlot(base.minusHours(1), Duration.ofMinutes(60)));
+        assertEquals(base.plusMinutes(30), index.findFreeSlot(base.plusMinutes(10), Duration.ofMinutes(10)));
+        assertEquals(base.plusMinutes(90), index.findFreeSlot(base.plusMinutes(10), Duration.ofMinutes(11)),
+                "Смежные интервалы пропускаются как один");
+        assertEquals(base.plusMinutes(35), index.findFreeSlot(base.plusMinutes(35), Duration.ofMinutes(5)));
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTaskManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldAppendRecordsInsteadOfRewritingSnapshot() throws IOException {
+        File file = tempDir.resolve("journal.csv").toFile();
+        File journal = new File(file.getPath() + ".journal");
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            manager.createTask(new Task("Task", "Description", Status.NEW));
+            int epicId = manager.createEpic(new Epic("Epic", "Description"));
+            manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epicId));
+        }
+
+        assertFalse(file.exists(), "Снимок не должен создаваться до слияния");
+        assertEquals(3, Files.readAllLines(journal.toPath()).size(), "Каждая мутация - одна запись журнала");
+    }
+
+    @Test
+    void shouldRebuildSearchIndexInsteadOfSavingIt() {
+        File file = tempDir.resolve("journal-search.csv").toFile();
+        int taskId;
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            taskId = manager.createTask(new Task("Написать отчёт", "Description", Status.NEW));
+            manager.saveSearchIndex();
+        }
+
+        assertFalse(new File(file.getPath() + ".idx").exists(), "В режиме журнала индекс не сохраняется");
+        try (JournaledTaskManager loaded = JournaledTaskManager.loadFromFile(file)) {
+            assertEquals(taskId, loaded.searchTasks("отч", 10).get(0).getId());
+        }
+    }
+
+    @Test
+    void shouldReplayJournalOnLoad() {
+        File file = tempDir.resolve("replay.csv").toFile();
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int taskId;
+        int epicId;
+        int subtaskId;
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            taskId = manager.createTask(new Task("Task", "Описание, с запятой", Status.NEW,
+                    startTime, Duration.ofHours(1)));
+            int removedId = manager.createTask(new Task("Removed", "Description", Status.NEW));
+            epicId = manager.createEpic(new Epic("Epic", "Description"));
+            subtaskId = manager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epicId,
+                    startTime.plusHours(2), Duration.ofMinutes(30)));
+
+            Subtask done = new Subtask("Subtask", "Description", Status.DONE, epicId,
+                    startTime.plusHours(2), Duration.ofMinutes(30));
+            done.setId(subtaskId);
+            manager.updateSubtask(done);
+            manager.deleteTaskById(removedId);
+        }
+
+        JournaledTaskManager loaded = JournaledTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllTasks().size(), "Удалённая задача не должна восстановиться");
+        assertEquals("Описание, с запятой", loaded.getTaskById(taskId).getDescription());
+        assertEquals(Status.DONE, loaded.getSubtaskById(subtaskId).getStatus(), "Должно примениться обновление");
+        assertEquals(Status.DONE, loaded.getEpicById(epicId).getStatus(), "Статус эпика должен пересчитаться");
+        assertEquals(2, loaded.getPrioritizedTasks().size());
+        loaded.close();
+    }
+
+    @Test
+    void shouldKeepQuotesAndCommasThroughReplayAndCompaction() {
+        File file = tempDir.resolve("quotes.csv").toFile();
+        String name = "Say \"hi\", ok";
+        String description = "\"\"Двойные\" кавычки, запятая";
+        int taskId;
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            taskId = manager.createTask(new Task(name, description, Status.NEW));
+        }
+        try (JournaledTaskManager replayed = JournaledTaskManager.loadFromFile(file)) {
+            assertEquals(name, replayed.getTaskById(taskId).getName(), "Журнал должен раскодировать \"\"");
+            assertEquals(description, replayed.getTaskById(taskId).getDescription());
+        }
+
+        // Слияние строится на воспроизведении журнала
+        try (JournaledTaskManager manager = JournaledTaskManager.loadFromFile(file, 64)) {
+            for (int i = 0; i < 5; i++) {
+                manager.createTask(new Task("Filler " + i, "Description", Status.NEW));
+            }
+        }
+        try (JournaledTaskManager compacted = JournaledTaskManager.loadFromFile(file)) {
+            assertEquals(name, compacted.getTaskById(taskId).getName());
+            assertEquals(description, compacted.getTaskById(taskId).getDescription());
+        }
+    }
+
+    @Test
+    void shouldCompactJournalIntoSnapshot() throws IOException {
+        File file = tempDir.resolve("compact.csv").toFile();
+        File sealed = new File(file.getPath() + ".journal.old");
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file, 256)) {
+            int epicId = manager.createEpic(new Epic("Epic", "Description"));
+            for (int i = 0; i < 50; i++) {
+                manager.createSubtask(new Subtask("Subtask " + i, "Description", Status.NEW, epicId));
+            }
+            manager.deleteTasks();
+        }
+
+        assertTrue(file.exists(), "Журнал должен слиться в снимок");
+        assertFalse(sealed.exists(), "Отложенный журнал удаляется после слияния");
+        assertTrue(Files.readString(file.toPath()).contains("Subtask 0"), "Снимок должен содержать слитые записи");
+
+        JournaledTaskManager loaded = JournaledTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllEpics().size());
+        assertEquals(50, loaded.getAllSubtasks().size(), "Снимок и хвост журнала должны дать полное состояние");
+        loaded.close();
+    }
+
+    @Test
+    void shouldCascadeEpicDeletionOnReplay() {
+        File file = tempDir.resolve("cascade.csv").toFile();
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            int epicId = manager.createEpic(new Epic("Epic", "Description"));
+            manager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epicId));
+            manager.deleteEpicById(epicId);
+        }
+
+        JournaledTaskManager loaded = JournaledTaskManager.loadFromFile(file);
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty(), "Подзадачи удалённого эпика не должны восстановиться");
+        loaded.close();
+    }
+
+    @Test
+    void shouldJournalBulkChangesAndReplayThem() {
+        File file = tempDir.resolve("bulk.csv").toFile();
+        int epicId;
+        List<Integer> ids;
+
+        try (JournaledTaskManager manager = new JournaledTaskManager(file)) {
+            epicId = manager.createEpic(new Epic("Epic", "Description"));
+            ids = manager.createAll(List.of(
+                    new Task("Task", "Description", Status.NEW),
+                    new Subtask("Subtask", "Description", Status.DONE, epicId)));
+            manager.deleteByIds(List.of(ids.get(0)));
+        }
+
+        JournaledTaskManager loaded = JournaledTaskManager.loadFromFile(file);
+        assertTrue(loaded.getAllTasks().isEmpty());
+        assertNotNull(loaded.getSubtaskById(ids.get(1)));
+        assertEquals(Status.DONE, loaded.getEpicById(epicId).getStatus());
+        loaded.close();
+    }
+}
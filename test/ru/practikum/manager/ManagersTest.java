@@ -12,9 +12,22 @@ class ManagersTest {
         assertNotNull(taskManager, "Менеджер задач не должен быть null");
     }
 
+    @Test
+    void getConcurrentReturnsThreadSafeTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+        assertInstanceOf(ConcurrentTaskManager.class, taskManager, "Должен вернуться потокобезопасный менеджер");
+    }
+
     @Test
     void getDefaultHistoryReturnsInitializedHistoryManager() {
         HistoryManager historyManager = Managers.getDefaultHistory();
         assertNotNull(historyManager, "Менеджер истории не должен быть null");
     }
+
+    @Test
+    void getDefaultHistoryWithLimitReturnsBoundedHistoryManager() {
+        HistoryManager historyManager = Managers.getDefaultHistory(10);
+        InMemoryHistoryManager inMemory = assertInstanceOf(InMemoryHistoryManager.class, historyManager);
+        assertEquals(10, inMemory.getMaxSize(), "Ограничение истории должно передаваться менеджеру");
+    }
 }
@@ -0,0 +1,107 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvSnapshotReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadQuotedFieldsWithCommasQuotesAndNewlines() {
+        File file = tempDir.resolve("quoted.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int id = manager.createTask(new Task("Имя, с запятой", "Строка \"в кавычках\"\nи перенос",
+                Status.NEW, LocalDateTime.of(2024, 1, 1, 10, 0, 30), Duration.ofMinutes(15)));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        Task task = loaded.getTaskById(id);
+
+        assertEquals("Имя, с запятой", task.getName());
+        assertEquals("Строка \"в кавычках\"\nи перенос", task.getDescription());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0, 30), task.getStartTime(), "Секунды не должны теряться");
+    }
+
+    @Test
+    void shouldReadRecordsSplitAcrossSmallWindows() {
+        File file = tempDir.resolve("windows.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        for (int i = 0; i < 50; i++) {
+            manager.createSubtask(new Subtask("Subtask " + i, "Длинное описание подзадачи " + i, Status.DONE,
+                    epicId, LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        List<Task> read = new ArrayList<>();
+        // Окно меньше одной записи: парсер должен расширять его и не терять записи на границах
+        MappedCsvSnapshotReader.read(file, read::add, 32);
+
+        assertEquals(51, read.size());
+        Subtask last = (Subtask) read.get(50);
+        assertEquals("Subtask 49", last.getName());
+        assertEquals(epicId, last.getEpicId());
+        assertEquals(LocalDateTime.of(2024, 1, 3, 1, 0), last.getStartTime());
+    }
+
+    @Test
+    void parallelReadShouldKeepFileOrderAcrossChunksAndWindows() {
+        File file = tempDir.resolve("parallel.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        for (int i = 0; i < 200; i++) {
+            manager.createTask(new Task("Task " + i, "Описание\nв две строки", Status.NEW));
+        }
+
+        List<Task> read = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Маленькое окно: несколько окон и кусков, записи с переводами строк внутри кавычек
+            MappedCsvSnapshotReader.readParallel(file, read::add, pool, 1024);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(200, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals("Task " + i, read.get(i).getName());
+            assertEquals("Описание\nв две строки", read.get(i).getDescription());
+        }
+    }
+
+    @Test
+    void shouldSkipBlankLinesAndCarriageReturns() throws IOException {
+        File file = tempDir.resolve("crlf.csv").toFile();
+        Files.writeString(file.toPath(), "id,type,name,status,description,startTime,duration,epic\r\n"
+                + "\r\n"
+                + "1,TASK,Task,IN_PROGRESS,Description,2024-01-01T10:00,60,\r\n");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        Task task = loaded.getTaskById(1);
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+        assertEquals(Duration.ofMinutes(60), task.getDuration());
+    }
+
+    @Test
+    void shouldReportMalformedRecord() throws IOException {
+        File file = tempDir.resolve("broken.csv").toFile();
+        Files.writeString(file.toPath(), "id,type,name,status,description,startTime,duration,epic\n"
+                + "x,TASK,Task,NEW,Description,,,\n");
+
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file));
+    }
+}
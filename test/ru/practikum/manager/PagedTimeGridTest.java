@@ -0,0 +1,118 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTimeGridTest extends TimeIndexTest<PagedTimeGrid> {
+
+    @Override
+    protected PagedTimeGrid createIndex() {
+        return new PagedTimeGrid();
+    }
+
+    @Test
+    void shouldRejectUnalignedNeighbourInSharedSlot() {
+        LocalDateTime base = LocalDateTime.of(2024, 5, 10, 10, 0);
+
+        index.occupy(base, base.plusMinutes(7)); // 10:00-10:07, слот 10:00-10:15
+
+        assertThrows(IllegalStateException.class, () -> index.occupy(base.plusMinutes(7), base.plusMinutes(20)),
+                "Соседний интервал в общем слоте не должен занимать его второй раз");
+        assertTrue(index.isFree(base.plusMinutes(15), base.plusMinutes(30)), "Отвергнутый интервал не должен занимать слоты");
+
+        index.release(base, base.plusMinutes(7));
+        assertDoesNotThrow(() -> index.occupy(base.plusMinutes(7), base.plusMinutes(20)));
+        index.release(base.plusMinutes(7), base.plusMinutes(20));
+        assertTrue(index.isFree(base, base.plusMinutes(30)));
+    }
+
+    @Test
+    void shouldDetectOverlapsOnSlotBoundaries() {
+        PagedTimeGrid grid = new PagedTimeGrid();
+        LocalDateTime base = LocalDateTime.of(2024, 5, 10, 10, 0);
+
+        grid.occupy(base, base.plusMinutes(15)); // 10:00-10:15
+
+        assertTrue(grid.isFree(base.plusMinutes(15), base.plusMinutes(30)), "10:15-10:30 не пересекается");
+        assertFalse(grid.isFree(base.plusMinutes(14), base.plusMinutes(30)), "10:14-10:30 пересекается");
+        assertFalse(grid.isFree(base.minusMinutes(15), base.plusMinutes(1)), "09:45-10:01 пересекается");
+    }
+
+    @Test
+    void shouldSurviveYearRollover() {
+        PagedTimeGrid grid = new PagedTimeGrid();
+        LocalDateTime newYearEve = LocalDateTime.of(2031, 12, 31, 23, 0);
+
+        grid.occupy(newYearEve, newYearEve.plusHours(2));
+
+        assertFalse(grid.isFree(LocalDateTime.of(2032, 1, 1, 0, 30), LocalDateTime.of(2032, 1, 1, 0, 45)),
+                "Задача после Нового года должна проверяться по сетке");
+        assertTrue(grid.isFree(LocalDateTime.of(2032, 1, 1, 1, 0), LocalDateTime.of(2032, 1, 1, 2, 0)));
+    }
+
+    @Test
+    void shouldHandleLongIntervalsAcrossPages() {
+        PagedTimeGrid grid = new PagedTimeGrid(1);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = start.plusMonths(3); // больше одной страницы при минутных слотах
+
+        grid.occupy(start, end);
+
+        assertFalse(grid.isFree(start.plusMonths(2), start.plusMonths(2).plusMinutes(1)));
+        assertTrue(grid.isFree(end, end.plusMinutes(1)), "Конец интервала не занят");
+        assertFalse(grid.isFree(end.minusMinutes(1), end), "Последняя минута интервала занята");
+        assertTrue(grid.pageCount() > 1);
+    }
+
+    @Test
+    void shouldFreeEmptyPages() {
+        PagedTimeGrid grid = new PagedTimeGrid();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        grid.occupy(start, start.plusYears(3));
+        assertTrue(grid.pageCount() > 0);
+
+        grid.release(start, start.plusYears(3));
+        assertEquals(0, grid.pageCount(), "Пустые страницы должны освобождаться");
+        assertTrue(grid.isFree(start, start.plusYears(3)));
+    }
+
+    @Test
+    void managerShouldWorkWithPagedGrid() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(new PagedTimeGrid());
+        LocalDateTime start = LocalDateTime.now().plusYears(3).withHour(10).withMinute(0);
+
+        int taskId = manager.createTask(new Task("Task 1", "Description", Status.NEW, start, Duration.ofMinutes(30)));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(new Task("Task 2", "Description",
+                Status.NEW, start.plusMinutes(15), Duration.ofMinutes(30))));
+
+        manager.deleteTaskById(taskId);
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 3", "Description", Status.NEW,
+                start.plusMinutes(15), Duration.ofMinutes(30))), "После удаления интервал должен освободиться");
+    }
+
+    @Test
+    void shouldFindFreeSlotAfterOccupiedSlots() {
+        PagedTimeGrid grid = new PagedTimeGrid(1);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        grid.occupy(base, base.plusMonths(2)); // больше одной страницы
+        grid.occupy(base.plusMonths(2).plusMinutes(10), base.plusMonths(2).plusMinutes(20));
+
+        assertEquals(base.plusMonths(2), grid.findFreeSlot(base.plusDays(1), Duration.ofMinutes(10)),
+                "Промежуток ровно по длительности подходит");
+        assertEquals(base.plusMonths(2).plusMinutes(20), grid.findFreeSlot(base, Duration.ofMinutes(11)));
+        assertEquals(base.minusMinutes(5).plusSeconds(30), grid.findFreeSlot(base.minusMinutes(5).plusSeconds(30),
+                Duration.ofMinutes(4)), "Свободное невыровненное время возвращается как есть");
+
+        LocalDateTime old = LocalDateTime.of(1960, 6, 1, 12, 0);
+        grid.occupy(old, old.plusHours(1));
+        assertEquals(old.plusHours(1), grid.findFreeSlot(old.minusMinutes(30), Duration.ofMinutes(31)),
+                "Слоты до 1970 года отрицательны");
+    }
+}
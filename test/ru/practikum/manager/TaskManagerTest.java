@@ -6,6 +6,8 @@ import ru.practikum.model.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -97,6 +99,55 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(Status.IN_PROGRESS, manager.getEpicById(epicId).getStatus(), "Эпик должен быть IN_PROGRESS");
     }
 
+    @Test
+    void epicStatusShouldFollowSubtaskChangedInPlace() {
+        int epicId = manager.createEpic(new Epic("Test epic", "Test epic description"));
+        int subtaskId = manager.createSubtask(new Subtask("Subtask 1", "Description", Status.NEW, epicId));
+        manager.createSubtask(new Subtask("Subtask 2", "Description", Status.DONE, epicId));
+
+        // Меняем сохранённый объект напрямую, как это делает Main, и передаём его в update
+        Subtask stored = manager.getSubtaskById(subtaskId);
+        stored.setStatus(Status.DONE);
+        manager.updateSubtask(stored);
+
+        assertEquals(Status.DONE, manager.getEpicById(epicId).getStatus(), "Эпик должен стать DONE");
+    }
+
+    @Test
+    void epicTimeShouldShrinkWhenBoundarySubtaskDeleted() {
+        int epicId = manager.createEpic(new Epic("Test epic", "Test epic description"));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int firstId = manager.createSubtask(new Subtask("Subtask 1", "Description", Status.NEW, epicId,
+                start, Duration.ofHours(1)));
+        manager.createSubtask(new Subtask("Subtask 2", "Description", Status.NEW, epicId,
+                start.plusHours(2), Duration.ofHours(1)));
+        int lastId = manager.createSubtask(new Subtask("Subtask 3", "Description", Status.NEW, epicId,
+                start.plusHours(4), Duration.ofHours(1)));
+
+        manager.deleteSubtaskById(firstId);
+        manager.deleteSubtaskById(lastId);
+
+        Epic epic = manager.getEpicById(epicId);
+        assertEquals(start.plusHours(2), epic.getStartTime(), "Начало эпика должно сдвинуться");
+        assertEquals(start.plusHours(3), epic.getEndTime(), "Окончание эпика должно сдвинуться");
+        assertEquals(Duration.ofHours(1), epic.getDuration());
+    }
+
+    @Test
+    void deleteSubtasksShouldResetEpics() {
+        int epicId = manager.createEpic(new Epic("Test epic", "Test epic description"));
+        manager.createSubtask(new Subtask("Subtask 1", "Description", Status.DONE, epicId,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofHours(1)));
+
+        manager.deleteSubtasks();
+
+        Epic epic = manager.getEpicById(epicId);
+        assertEquals(Status.NEW, epic.getStatus());
+        assertTrue(epic.getSubtaskIds().isEmpty());
+        assertNull(epic.getStartTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
     @Test
     void taskWithTimeShouldSaveTimeCorrectly() {
         LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0);
@@ -241,4 +292,153 @@ abstract class TaskManagerTest<T extends TaskManager> {
         manager.deleteSubtasks();
         assertEquals(0, manager.getAllSubtasks().size(), "Все подзадачи должны быть удалены");
     }
+
+    @Test
+    void shouldReturnPrioritizedTasksStartingInRange() {
+        LocalDateTime monday = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int day = 0; day < 14; day++) {
+            manager.createTask(new Task("Task " + day, "Description", Status.NEW,
+                    monday.plusDays(day), Duration.ofHours(1)));
+        }
+        manager.createTask(new Task("Без времени", "Description", Status.NEW));
+
+        List<Task> week = manager.getPrioritizedTasks(monday.plusDays(7), monday.plusDays(14));
+
+        assertEquals(7, week.size(), "В диапазон попадают задачи второй недели");
+        assertEquals("Task 7", week.get(0).getName(), "Левая граница включается");
+        assertEquals("Task 13", week.get(6).getName());
+        assertTrue(manager.getPrioritizedTasks(monday.plusDays(14), monday.plusDays(14)).isEmpty(),
+                "Пустой диапазон не содержит задач");
+        assertEquals(1, manager.getPrioritizedTasks(monday, monday.plusMinutes(1)).size(),
+                "Правая граница исключается, задача, начинающаяся в from, включается");
+    }
+
+    @Test
+    void shouldPagePrioritizedTasksByCursor() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 25; i++) {
+            manager.createTask(new Task("Task " + i, "Description", Status.NEW,
+                    start.plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        List<Task> first = manager.getPrioritizedTasksAfter(null, 10);
+        List<Task> second = manager.getPrioritizedTasksAfter(first.get(9), 10);
+        List<Task> third = manager.getPrioritizedTasksAfter(second.get(9), 10);
+
+        assertEquals(10, first.size());
+        assertEquals("Task 10", second.get(0).getName(), "Страница начинается сразу после курсора");
+        assertEquals(5, third.size(), "Последняя страница неполная");
+        assertEquals(manager.getPrioritizedTasks(), concat(first, second, third), "Страницы покрывают весь список");
+    }
+
+    @Test
+    void prioritizedIteratorShouldBeReadOnly() {
+        manager.createTask(new Task("Task", "Description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 0, 0), Duration.ofMinutes(30)));
+
+        Iterator<Task> iterator = manager.prioritizedTasksIterator();
+        assertTrue(iterator.hasNext());
+        assertEquals("Task", iterator.next().getName());
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+
+    @SafeVarargs
+    private static List<Task> concat(List<Task>... pages) {
+        List<Task> result = new ArrayList<>();
+        for (List<Task> page : pages) {
+            result.addAll(page);
+        }
+        return result;
+    }
+
+    @Test
+    void shouldCreateAndDeleteInBulk() {
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        List<Integer> ids = manager.createAll(List.of(
+                new Task("Task", "Description", Status.NEW),
+                new Subtask("Subtask 1", "Description", Status.DONE, epicId),
+                new Subtask("Subtask 2", "Description", Status.NEW, epicId)));
+
+        assertEquals(3, ids.size());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epicId).getStatus());
+
+        manager.deleteByIds(List.of(ids.get(2), ids.get(0)));
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertEquals(Status.DONE, manager.getEpicById(epicId).getStatus(), "Эпик пересчитан после удаления");
+
+        manager.deleteByIds(List.of(epicId));
+        assertTrue(manager.getAllSubtasks().isEmpty(), "Подзадачи удаляются вместе с эпиком");
+    }
+
+    @Test
+    void shouldCountAndSelectTasksByStatus() {
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = manager.createSubtask(new Subtask("Subtask 1", "Description", Status.NEW, epicId));
+        manager.createSubtask(new Subtask("Subtask 2", "Description", Status.DONE, epicId));
+        int taskId = manager.createTask(new Task("Task", "Description", Status.NEW));
+
+        assertEquals(2, manager.countTasks(TaskType.SUBTASK));
+        assertEquals(1, manager.countTasks(TaskType.SUBTASK, Status.DONE));
+        assertEquals(1, manager.countTasks(TaskType.EPIC, Status.IN_PROGRESS), "Индекс следит за статусом эпика");
+
+        Subtask done = new Subtask("Subtask 1", "Description", Status.DONE, epicId);
+        done.setId(subtaskId);
+        manager.updateSubtask(done);
+        manager.deleteTaskById(taskId);
+
+        assertEquals(2, manager.getTasksByStatus(TaskType.SUBTASK, Status.DONE).size());
+        assertEquals(0, manager.countTasks(TaskType.SUBTASK, Status.NEW));
+        assertEquals(0, manager.countTasks(TaskType.TASK, Status.NEW));
+        assertEquals(epicId, manager.getTasksByStatus(TaskType.EPIC, Status.DONE).get(0).getId());
+        assertEquals(0, manager.countTasks(TaskType.EPIC, Status.IN_PROGRESS));
+    }
+
+    @Test
+    void shouldSearchTasksByNameAndDescription() {
+        int epicId = manager.createEpic(new Epic("Переезд", "Собрать вещи"));
+        int subtaskId = manager.createSubtask(new Subtask("Заказать грузчиков", "Для переезда", Status.NEW, epicId));
+        int taskId = manager.createTask(new Task("Купить коробки", "Много коробок", Status.NEW));
+
+        List<Task> found = manager.searchTasks("переезд", 10);
+        assertEquals(2, found.size());
+        assertEquals(epicId, found.get(0).getId(), "Точное совпадение в имени - первым");
+        assertEquals(subtaskId, found.get(1).getId());
+
+        Task renamed = new Task("Купить скотч", "", Status.NEW);
+        renamed.setId(taskId);
+        manager.updateTask(renamed);
+        assertTrue(manager.searchTasks("короб", 10).isEmpty());
+        assertEquals(taskId, manager.searchTasks("скот", 10).get(0).getId());
+
+        manager.deleteEpicById(epicId);
+        assertTrue(manager.searchTasks("переезд", 10).isEmpty(), "Подзадачи удалённого эпика не находятся");
+    }
+
+    @Test
+    void shouldFindFreeSlotAndScheduleBatch() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        manager.createTask(new Task("Busy 1", "Description", Status.NEW, base, Duration.ofMinutes(60)));
+        manager.createTask(new Task("Busy 2", "Description", Status.NEW, base.plusMinutes(90), Duration.ofMinutes(30)));
+
+        assertEquals(base.plusMinutes(60), manager.findFreeSlot(base, Duration.ofMinutes(30)));
+        assertEquals(base.plusMinutes(120), manager.findFreeSlot(base, Duration.ofMinutes(31)));
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlot(base, Duration.ZERO));
+
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        Task first = new Task("First", "Description", Status.NEW, null, Duration.ofMinutes(20));
+        Subtask second = new Subtask("Second", "Description", Status.NEW, epicId, null, Duration.ofMinutes(20));
+        Task third = new Task("Third", "Description", Status.NEW, null, Duration.ofMinutes(60));
+        List<Integer> ids = manager.scheduleAll(List.of(first, second, third), base);
+
+        assertEquals(3, ids.size());
+        assertEquals(base.plusMinutes(60), manager.getTaskById(ids.get(0)).getStartTime());
+        assertEquals(base.plusMinutes(120), manager.getSubtaskById(ids.get(1)).getStartTime(),
+                "Подзадача не помещается в остаток промежутка и идёт после занятого времени");
+        assertEquals(base.plusMinutes(140), manager.getTaskById(ids.get(2)).getStartTime(),
+                "Пакет ставится по порядку, без возврата в пропущенные промежутки");
+        assertEquals(base.plusMinutes(120), manager.getEpicById(epicId).getStartTime());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.scheduleAll(List.of(new Epic("Epic 2", "Description")), base));
+    }
 }
@@ -0,0 +1,141 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.model.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTransactionTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldMoveSubtasksAtomically() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        int firstId = manager.createSubtask(new Subtask("First", "Description", Status.NEW, epicId,
+                START, Duration.ofHours(1)));
+        int secondId = manager.createSubtask(new Subtask("Second", "Description", Status.NEW, epicId,
+                START.plusHours(1), Duration.ofHours(1)));
+
+        try (TaskTransaction transaction = manager.beginTransaction()) {
+            Subtask first = new Subtask("First", "Description", Status.DONE, epicId,
+                    START.plusHours(1), Duration.ofHours(1));
+            first.setId(firstId);
+            Subtask second = new Subtask("Second", "Description", Status.DONE, epicId,
+                    START, Duration.ofHours(1));
+            second.setId(secondId);
+            transaction.update(first).update(second);
+
+            assertEquals(Status.NEW, manager.getSubtaskById(firstId).getStatus(), "До коммита менеджер не меняется");
+            assertEquals(Status.DONE, transaction.get(firstId).getStatus(), "Транзакция видит свои изменения");
+            transaction.commit();
+        }
+
+        assertEquals(Status.DONE, manager.getEpicById(epicId).getStatus());
+        assertEquals(secondId, manager.getPrioritizedTasks().get(0).getId());
+    }
+
+    @Test
+    void failedCommitShouldLeaveManagerUnchanged() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int taskId = manager.createTask(new Task("Task", "Description", Status.NEW, START, Duration.ofHours(1)));
+
+        TaskTransaction transaction = manager.beginTransaction()
+                .delete(taskId)
+                .create(new Task("A", "Description", Status.NEW, START.plusHours(3), Duration.ofHours(1)))
+                .create(new Task("B", "Description", Status.NEW, START.plusHours(3), Duration.ofHours(1)));
+        assertNull(transaction.get(taskId));
+
+        assertThrows(IllegalArgumentException.class, transaction::commit);
+        assertNotNull(manager.getTaskById(taskId), "Удаление из отклонённой транзакции не применяется");
+        assertEquals(1, manager.getAllTasks().size());
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(
+                new Task("Overlap", "Description", Status.NEW, START, Duration.ofMinutes(30))),
+                "Интервал задачи должен остаться занятым");
+        assertThrows(IllegalStateException.class, transaction::commit, "Транзакция одноразовая");
+    }
+
+    @Test
+    void rollbackShouldDiscardStagedChanges() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        try (TaskTransaction transaction = manager.beginTransaction()) {
+            transaction.create(new Task("Task", "Description", Status.NEW));
+        }
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void editingReadTaskShouldNotBypassTransaction() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int taskId = manager.createTask(new Task("Task", "Description", Status.NEW, START, Duration.ofHours(1)));
+
+        try (TaskTransaction transaction = manager.beginTransaction()) {
+            Task task = transaction.get(taskId);
+            task.setStartTime(START.plusMinutes(30));
+            transaction.update(task);
+            task.setStatus(Status.DONE);
+            transaction.rollback();
+        }
+
+        Task stored = manager.getTaskById(taskId);
+        assertEquals(START, stored.getStartTime(), "Откат не должен оставлять изменений полученной копии");
+        assertEquals(Status.NEW, stored.getStatus());
+    }
+
+    @Test
+    void shouldCommitEditedCopyOverItsOwnInterval() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int taskId = manager.createTask(new Task("Task", "Description", Status.NEW, START, Duration.ofHours(1)));
+
+        try (TaskTransaction transaction = manager.beginTransaction()) {
+            Task task = transaction.get(taskId);
+            task.setStartTime(START.plusMinutes(45));
+            transaction.update(task);
+            task.setStatus(Status.DONE);
+            transaction.commit();
+        }
+
+        Task stored = manager.getTaskById(taskId);
+        assertEquals(START.plusMinutes(45), stored.getStartTime());
+        assertEquals(Status.NEW, stored.getStatus(), "Применяется копия, запомненная в update()");
+        assertDoesNotThrow(() -> manager.createTask(new Task("Before", "Description", Status.NEW,
+                START, Duration.ofMinutes(45))), "Старый интервал должен освободиться");
+    }
+
+    @Test
+    void commitShouldPersistOnce() {
+        File file = tempDir.resolve("transaction.csv").toFile();
+        int[] saves = new int[1];
+        FileBackedTaskManager manager = new FileBackedTaskManager(file) {
+            @Override
+            protected void save() {
+                saves[0]++;
+                super.save();
+            }
+        };
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        saves[0] = 0;
+
+        List<Integer> ids = manager.beginTransaction()
+                .create(new Task("Task", "Description", Status.NEW))
+                .create(new Subtask("Subtask 1", "Description", Status.NEW, epicId))
+                .create(new Subtask("Subtask 2", "Description", Status.DONE, epicId))
+                .commit();
+
+        assertEquals(1, saves[0], "Транзакция сохраняется одной записью");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(3, ids.size());
+        assertEquals(2, loaded.getSubtasksByEpicId(epicId).size());
+        assertEquals(Status.IN_PROGRESS, loaded.getEpicById(epicId).getStatus());
+    }
+}
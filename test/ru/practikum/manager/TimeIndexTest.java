@@ -0,0 +1,117 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Общий контракт TimeIndex; время выровнено по 15 минутам, чтобы сетка со слотами по умолчанию была точной
+abstract class TimeIndexTest<T extends TimeIndex> {
+    protected T index;
+
+    protected abstract T createIndex();
+
+    @BeforeEach
+    void setUp() {
+        index = createIndex();
+    }
+
+    @Test
+    void touchingIntervalsShouldNotOverlap() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+        index.occupy(base, base.plusMinutes(30)); // 10:00-10:30
+
+        assertTrue(index.isFree(base.plusMinutes(30), base.plusMinutes(60)), "10:30-11:00 касается, но не пересекается");
+        assertTrue(index.isFree(base.minusMinutes(30), base), "09:30-10:00 касается, но не пересекается");
+        assertFalse(index.isFree(base.plusMinutes(15), base.plusMinutes(45)), "10:15-10:45 пересекается");
+        assertFalse(index.isFree(base.minusHours(1), base.plusHours(1)), "Охватывающий интервал пересекается");
+    }
+
+    @Test
+    void emptyIntervalsShouldBeIgnored() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+        index.occupy(start, start);
+        index.occupy(null, start);
+
+        assertTrue(index.isFree(start.minusHours(1), start.plusHours(1)));
+        index.occupy(start, start.plusHours(1));
+        assertTrue(index.isFree(start.plusMinutes(15), start.plusMinutes(15)), "Пустой интервал ни с чем не пересекается");
+    }
+
+    @Test
+    void shouldWorkAcrossYears() {
+        LocalDateTime newYearEve = LocalDateTime.of(2030, 12, 31, 23, 30);
+
+        index.occupy(newYearEve, newYearEve.plusHours(1));
+
+        assertFalse(index.isFree(newYearEve.plusMinutes(45), newYearEve.plusMinutes(60)),
+                "Интервал через границу года должен учитываться");
+        assertTrue(index.isFree(newYearEve.plusYears(100), newYearEve.plusYears(100).plusHours(1)));
+    }
+
+    @Test
+    void shouldReleaseIntervals() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        index.occupy(start, start.plusHours(1));
+        index.release(start, start.plusHours(1));
+
+        assertTrue(index.isFree(start, start.plusHours(1)), "Освобождённый интервал должен быть свободен");
+    }
+
+    @Test
+    void releaseShouldKeepAdjacentIntervals() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        index.occupy(start, start.plusHours(1));
+        index.occupy(start.plusHours(1), start.plusHours(2));
+        index.release(start, start.plusHours(1));
+
+        assertTrue(index.isFree(start, start.plusHours(1)));
+        assertFalse(index.isFree(start.plusHours(1), start.plusMinutes(75)), "Соседний интервал должен остаться занятым");
+    }
+
+    @Test
+    void shouldRejectOverlappingOccupy() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        index.occupy(start, start.plusHours(1));
+
+        assertThrows(IllegalStateException.class, () -> index.occupy(start, start.plusMinutes(30)),
+                "Интервал с тем же началом не должен перезаписывать занятый");
+        assertThrows(IllegalStateException.class, () -> index.occupy(start.minusMinutes(30), start.plusMinutes(15)));
+        assertTrue(index.isFree(start.minusMinutes(30), start), "Отвергнутый интервал не должен занимать время");
+
+        index.release(start, start.plusHours(1));
+        assertTrue(index.isFree(start, start.plusHours(1)));
+    }
+
+    @Test
+    void shouldFindFreeSlot() {
+        LocalDateTime base = LocalDateTime.of(2024, 5, 10, 10, 0);
+        index.occupy(base, base.plusMinutes(30));                     // 10:00-10:30
+        index.occupy(base.plusMinutes(45), base.plusMinutes(60));     // 10:45-11:00
+        index.occupy(base.plusMinutes(60), base.plusMinutes(90));     // 11:00-11:30
+
+        assertEquals(base.minusHours(1), index.findFreeSlot(base.minusHours(1), Duration.ofMinutes(60)));
+        assertEquals(base.plusMinutes(30), index.findFreeSlot(base.plusMinutes(15), Duration.ofMinutes(15)));
+        assertEquals(base.plusMinutes(90), index.findFreeSlot(base.plusMinutes(15), Duration.ofMinutes(16)),
+                "Смежные интервалы пропускаются как один");
+    }
+
+    @Test
+    void clearShouldFreeEverything() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        index.occupy(start, start.plusHours(1));
+
+        index.clear();
+
+        assertTrue(index.isFree(start, start.plusHours(1)));
+        assertDoesNotThrow(() -> index.occupy(start, start.plusHours(1)));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practikum.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsShouldCoverValuesWithBoundedError() {
+        long[] values = {0, 1, 31, 32, 33, 1000, 123_456, 10_000_000_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= value, "Граница корзины не меньше значения " + value);
+            assertTrue(upper - value <= value / LatencyHistogram.SUB_BUCKETS, "Погрешность больше 1/32 для " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBound(bucket - 1) < value, "Значение " + value + " не в своей корзине");
+            }
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesMeanAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 33 / 32, "p50 = " + p50);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+}
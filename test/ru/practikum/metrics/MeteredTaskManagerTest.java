@@ -0,0 +1,72 @@
+package ru.practikum.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practikum.manager.FileBackedTaskManager;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import javax.management.Attribute;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredTaskManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRecordOperationsOverlapChecksAndHistory() {
+        SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+        MeteredTaskManager manager = MeteredTaskManager.inMemory(registry);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        int id = manager.createTask(new Task("Task", "Description", Status.NEW, start, Duration.ofHours(1)));
+        manager.createTask(new Task("No time", "Description", Status.NEW));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(
+                new Task("Overlap", "Description", Status.NEW, start, Duration.ofHours(1))));
+        manager.getTaskById(id);
+        manager.getPrioritizedTasks();
+
+        Map<String, Number> metrics = registry.snapshot();
+        assertEquals(3L, metrics.get("create.count"), "Неудачное создание тоже замеряется");
+        assertEquals(1L, metrics.get("get.count"));
+        assertEquals(1L, metrics.get("getPrioritizedTasks.count"));
+        assertEquals(1L, metrics.get("overlap.free"));
+        assertEquals(1L, metrics.get("overlap.noTime"));
+        assertEquals(1L, metrics.get("overlap.conflict"));
+        assertEquals(1L, metrics.get("history.size"));
+        assertEquals(0L, metrics.get("history.get.count"));
+    }
+
+    @Test
+    void shouldRecordPersistenceAndPublishToJmx() throws Exception {
+        SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+        MeteredTaskManager manager = new MeteredTaskManager(
+                new FileBackedTaskManager(tempDir.resolve("metered.csv").toFile()), registry);
+        manager.createTask(new Task("Task", "Description", Status.NEW));
+
+        assertEquals(1L, registry.snapshot().get("persist.count"));
+        assertTrue(registry.snapshot().get("persist.bytes").longValue() > 0);
+
+        ObjectName name = JmxMetrics.register(registry, "ru.practikum:type=TaskManagerMetrics,name=test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "create.count"));
+            assertThrows(AttributeNotFoundException.class,
+                    () -> server.setAttribute(name, new Attribute("create.count", 0L)), "Метрики только для чтения");
+            assertThrows(ReflectionException.class, () -> server.invoke(name, "reset", null, null));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -37,4 +37,22 @@ class TaskTest {
 
         assertNotEquals("Not a task", task);
     }
-}
\ No newline at end of file
+
+    @Test
+    void everyMutationShouldAdvanceVersion() {
+        Task task = new Task("Task", "Description", Status.NEW);
+        long version = task.getVersion();
+
+        task.setStatus(Status.DONE);
+        assertTrue(task.getVersion() > version, "Изменение статуса должно менять версию");
+        version = task.getVersion();
+
+        task.setName("Другое имя");
+        assertTrue(task.getVersion() > version, "Изменение имени должно менять версию");
+
+        Epic epic = new Epic("Epic", "Description");
+        long epicVersion = epic.getVersion();
+        epic.addSubtaskId(5);
+        assertTrue(epic.getVersion() > epicVersion, "Изменение подзадач эпика должно менять версию");
+    }
+}
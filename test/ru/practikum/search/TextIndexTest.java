@@ -0,0 +1,82 @@
+package ru.practikum.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void tokenizerShouldNormalizeRussianAndEnglishWords() {
+        assertEquals(List.of("елка", "v2", "release", "notes"), TextTokenizer.tokenize("Ёлка: v2 Release-notes!"));
+        assertTrue(TextTokenizer.tokenize("  ,.; ").isEmpty());
+        assertTrue(TextTokenizer.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void shouldFindByPrefixAndRankNameAboveDescription() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Купить молоко", "В магазине у дома");
+        index.put(2, "Позвонить маме", "Спросить про молоко");
+        index.put(3, "Отчёт", "Квартальный отчёт");
+
+        List<SearchHit> hits = index.search("мол", 10);
+        assertEquals(2, hits.size());
+        assertEquals(1, hits.get(0).getId(), "Совпадение в имени весит больше, чем в описании");
+        assertEquals(2, hits.get(1).getId());
+
+        assertEquals(3, index.search("ОТЧЕТ", 10).get(0).getId(), "Регистр и ё не учитываются");
+        assertEquals(List.of(), index.search("молоко отчёт", 10), "Слова запроса объединяются по И");
+        assertEquals(1, index.search("молоко маг", 10).size());
+        assertEquals(1, index.search("мол", 1).size());
+    }
+
+    @Test
+    void exactWordShouldRankAbovePrefixMatch() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Тестирование", null);
+        index.put(2, "Тест", null);
+
+        List<SearchHit> hits = index.search("тест", 10);
+        assertEquals(2, hits.get(0).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void updateAndRemoveShouldReplaceWords() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Старое имя", "");
+        index.put(1, "Новое имя", "");
+        assertTrue(index.search("старое", 10).isEmpty());
+        assertEquals(1, index.search("новое", 10).size());
+
+        index.remove(1);
+        assertTrue(index.search("имя", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void shouldReadOnlyIndexWithMatchingStamp() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Купить молоко", "");
+        index.put(7, "Позвонить", "маме");
+        File file = tempDir.resolve("tasks.csv.idx").toFile();
+        index.image().write(file, 100, 200);
+
+        TextIndex loaded = new TextIndex();
+        assertTrue(loaded.read(file, 100, 200));
+        assertEquals(2, loaded.size());
+        assertEquals(7, loaded.search("мам", 10).get(0).getId());
+
+        assertFalse(loaded.read(file, 101, 200), "Индекс от другой версии данных не принимается");
+        assertEquals(0, loaded.size());
+        assertFalse(loaded.read(tempDir.resolve("missing.idx").toFile(), 100, 200));
+    }
+}
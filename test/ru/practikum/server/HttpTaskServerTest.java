@@ -0,0 +1,121 @@
+package ru.practikum.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.manager.InMemoryTaskManager;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerTest {
+    private InMemoryTaskManager manager;
+    private HttpTaskServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void shouldCreateAndReturnTask() throws Exception {
+        HttpResponse<String> created = post("/tasks",
+                "{\"name\":\"Задача\",\"description\":\"С \\\"кавычками\\\"\",\"status\":\"IN_PROGRESS\","
+                        + "\"startTime\":\"2024-01-01T10:00:00\",\"duration\":60}");
+        assertEquals(201, created.statusCode());
+
+        Task task = manager.getAllTasks().get(0);
+        assertEquals("С \"кавычками\"", task.getDescription());
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+        assertEquals(Duration.ofHours(1), task.getDuration());
+
+        HttpResponse<String> loaded = get("/tasks/" + task.getId());
+        assertEquals(200, loaded.statusCode());
+        assertTrue(loaded.body().contains("\"name\":\"Задача\""));
+        assertTrue(loaded.body().contains("\"endTime\":\"2024-01-01T11:00:00\""));
+        assertEquals(1, manager.getHistory().size(), "GET по id - это просмотр задачи");
+    }
+
+    @Test
+    void shouldRejectOverlapsAndBadRequests() throws Exception {
+        manager.createTask(new Task("Task", "Description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofHours(1)));
+
+        assertEquals(406, post("/tasks", "{\"name\":\"Overlap\",\"startTime\":\"2024-01-01T10:30:00\","
+                + "\"duration\":30}").statusCode());
+        assertEquals(400, post("/tasks", "{\"name\":").statusCode());
+        assertEquals(400, post("/subtasks", "{\"name\":\"Без эпика\"}").statusCode());
+        assertEquals(404, post("/subtasks", "{\"name\":\"Subtask\",\"epicId\":42}").statusCode());
+        assertEquals(404, get("/tasks/42").statusCode());
+        assertEquals(404, get("/tasks/abc").statusCode());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    void shouldUpdateExistingTasksOnly() throws Exception {
+        int id = manager.createTask(new Task("Task", "Description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofHours(1)));
+        manager.createTask(new Task("Other", "Description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 12, 0), Duration.ofHours(1)));
+
+        assertEquals(200, post("/tasks", "{\"id\":" + id + ",\"name\":\"Updated\",\"status\":\"DONE\"}")
+                .statusCode(), "Обновление - не создание");
+        assertEquals("Updated", manager.getTaskById(id).getName());
+
+        assertEquals(404, post("/tasks", "{\"id\":42,\"name\":\"Missing\"}").statusCode());
+        assertEquals(404, post("/epics", "{\"id\":42,\"name\":\"Missing\"}").statusCode());
+        assertEquals(406, post("/tasks", "{\"id\":" + id + ",\"name\":\"Overlap\","
+                + "\"startTime\":\"2024-01-01T12:30:00\",\"duration\":30}").statusCode());
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    @Test
+    void shouldServeEpicsHistoryAndPrioritized() throws Exception {
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        assertEquals(201, post("/subtasks", "{\"name\":\"Subtask\",\"status\":\"DONE\",\"epicId\":" + epicId
+                + ",\"startTime\":\"2024-01-01T10:00:00\",\"duration\":15}").statusCode());
+
+        HttpResponse<String> epic = get("/epics/" + epicId);
+        assertTrue(epic.body().contains("\"status\":\"DONE\""));
+        assertTrue(get("/epics/" + epicId + "/subtasks").body().contains("\"epicId\":" + epicId));
+        assertTrue(get("/history").body().contains("\"type\":\"EPIC\""));
+        assertTrue(get("/prioritized").body().contains("\"type\":\"SUBTASK\""));
+
+        HttpResponse<String> deleted = client.send(request("/epics/" + epicId).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, deleted.statusCode());
+        assertEquals("[]", get("/subtasks").body());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(request(path).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+    }
+}
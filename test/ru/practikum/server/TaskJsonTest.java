@@ -0,0 +1,51 @@
+package ru.practikum.server;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonTest {
+
+    @Test
+    void writtenTaskShouldParseBack() {
+        Subtask subtask = new Subtask("Имя\tс табом", "Строка\nи \"кавычки\" \\ \u0001", Status.DONE, 7,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(45));
+        subtask.setId(3);
+
+        StringBuilder json = TaskJson.newBuffer(1);
+        TaskJson.writeTask(json, subtask);
+        Subtask parsed = (Subtask) TaskJson.parseTask(json.toString(), TaskType.SUBTASK);
+
+        assertEquals(3, parsed.getId());
+        assertEquals(subtask.getName(), parsed.getName());
+        assertEquals(subtask.getDescription(), parsed.getDescription());
+        assertEquals(Status.DONE, parsed.getStatus());
+        assertEquals(7, parsed.getEpicId());
+        assertEquals(subtask.getStartTime(), parsed.getStartTime());
+        assertEquals(subtask.getDuration(), parsed.getDuration());
+    }
+
+    @Test
+    void shouldSkipUnknownFieldsAndNulls() {
+        Task task = TaskJson.parseTask("{ \"name\" : \"Task\", \"extra\": {\"a\": [1, 2.5e3, true, null]},"
+                + " \"subtaskIds\": [], \"startTime\": null, \"duration\": null }", TaskType.TASK);
+
+        assertEquals("Task", task.getName());
+        assertEquals(Status.NEW, task.getStatus());
+        assertNull(task.getStartTime());
+    }
+
+    @Test
+    void shouldRejectMalformedJson() {
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.parseTask("{\"name\":\"x\"} tail", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> TaskJson.parseTask("{\"name\":\"x", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskJson.parseTask("{\"name\":\"x\",\"status\":\"LATER\"}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskJson.parseTask("{\"name\":\"x\",\"startTime\":\"вчера\"}", TaskType.TASK));
+    }
+}
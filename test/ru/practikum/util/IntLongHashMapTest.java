@@ -0,0 +1,39 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLongHashMapTest {
+
+    @Test
+    void shouldStoreReplaceAndRemoveValues() {
+        IntLongHashMap map = new IntLongHashMap();
+        map.put(1, 100L);
+        map.put(1, 200L);
+        map.put(17, 300L);
+
+        assertEquals(200L, map.get(1, -1));
+        assertEquals(300L, map.get(17, -1));
+        assertEquals(-1L, map.get(2, -1), "Для отсутствующего ключа возвращается значение по умолчанию");
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertEquals(300L, map.get(17, -1), "Удаление не должно обрывать цепочку пробирования");
+    }
+
+    @Test
+    void shouldGrowWithManyKeys() {
+        IntLongHashMap map = new IntLongHashMap();
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i, (long) i << 20);
+        }
+
+        assertEquals(100_000, map.size());
+        assertEquals(99_999L << 20, map.get(99_999, -1));
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(5));
+    }
+}
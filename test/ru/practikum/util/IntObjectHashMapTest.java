@@ -0,0 +1,101 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void shouldPutGetAndReplace() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.put(1, "uno"), "put должен вернуть прежнее значение");
+        assertEquals("uno", map.get(1));
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void shouldIterateSequentialIdsInAscendingOrder() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        for (int id = 100; id >= 1; id--) {
+            map.put(id, id);
+        }
+
+        List<Integer> values = new ArrayList<>(map.values());
+        assertEquals(100, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, (int) values.get(i));
+        }
+    }
+
+    @Test
+    void shouldFindKeysAfterRemovalInProbeChain() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        // Ключи с шагом в ёмкость таблицы попадают в одну цепочку пробирования
+        map.put(0, "a");
+        map.put(16, "b");
+        map.put(32, "c");
+
+        assertEquals("b", map.remove(16));
+        assertEquals("c", map.get(32), "Удалённая ячейка не должна обрывать цепочку");
+        assertNull(map.remove(16));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void shouldHandleStridedKeysWithoutLongProbeChains() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        int count = 1 << 17;
+        int stride = 1 << 15;
+
+        // Без перемешивания ключи с шагом 2^15 заняли бы 8 цепочек и вставка стала бы квадратичной
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < count; i++) {
+                map.put(i * stride, i);
+            }
+            for (int i = 0; i < count; i += 2) {
+                map.remove(i * stride);
+            }
+        });
+
+        assertEquals(count / 2, map.size());
+        assertNull(map.get(0));
+        assertEquals(1, (int) map.get(stride));
+        assertEquals(count - 1, (int) map.get((count - 1) * stride));
+    }
+
+    @Test
+    void valuesRemoveIfShouldDeleteEntries() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        for (int id = 1; id <= 1_000; id++) {
+            map.put(id, id);
+        }
+
+        map.values().removeIf(value -> value % 2 == 0);
+
+        assertEquals(500, map.size());
+        assertNull(map.get(2));
+        assertEquals(3, (int) map.get(3));
+    }
+
+    @Test
+    void computeIfAbsentShouldCreateOnce() {
+        IntObjectHashMap<List<String>> map = new IntObjectHashMap<>();
+
+        List<String> first = map.computeIfAbsent(7, key -> new ArrayList<>());
+        List<String> second = map.computeIfAbsent(7, key -> new ArrayList<>());
+
+        assertSame(first, second);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(7));
+    }
+}
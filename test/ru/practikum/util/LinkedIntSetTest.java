@@ -0,0 +1,102 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkedIntSetTest {
+
+    @Test
+    void shouldKeepInsertionOrderWithoutDuplicates() {
+        LinkedIntSet set = new LinkedIntSet();
+        set.add(5);
+        set.add(1);
+        set.add(3);
+
+        assertFalse(set.add(1), "Дубликат не должен добавляться");
+        assertEquals(3, set.size());
+        assertArrayEquals(new int[]{5, 1, 3}, set.toArray(), "Порядок обхода должен совпадать с порядком вставки");
+    }
+
+    @Test
+    void shouldRemoveFromAnyPosition() {
+        LinkedIntSet set = new LinkedIntSet();
+        for (int i = 1; i <= 5; i++) {
+            set.add(i);
+        }
+
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(3));
+        assertTrue(set.remove(5));
+        assertFalse(set.remove(42));
+
+        assertArrayEquals(new int[]{2, 4}, set.toArray());
+        assertFalse(set.contains(3));
+        assertTrue(set.contains(4));
+    }
+
+    @Test
+    void shouldGrowAndReuseDeletedSlots() {
+        LinkedIntSet set = new LinkedIntSet();
+        for (int i = 0; i < 10_000; i++) {
+            set.add(i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            set.remove(i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            set.add(i);
+        }
+
+        assertEquals(10_000, set.size());
+        int[] values = set.toArray();
+        assertEquals(1, values[0], "Сначала идут нечётные, оставшиеся с первой вставки");
+        assertEquals(0, values[5_000], "Затем чётные, добавленные повторно");
+    }
+
+    @Test
+    void readOnlyViewShouldReflectChangesWithoutCopying() {
+        LinkedIntSet set = new LinkedIntSet();
+        IntSetView view = set.asReadOnly();
+
+        set.add(7);
+        assertEquals(1, view.size());
+        assertTrue(view.contains(7));
+        assertSame(view, set.asReadOnly(), "Представление создаётся один раз");
+
+        PrimitiveIterator.OfInt iterator = view.iterator();
+        assertEquals(7, iterator.nextInt());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void copyShouldBeIndependent() {
+        LinkedIntSet original = new LinkedIntSet();
+        original.add(1);
+        LinkedIntSet copy = new LinkedIntSet(original);
+
+        original.add(2);
+        assertEquals(1, copy.size());
+        assertEquals("[1]", copy.toString());
+    }
+
+    @Test
+    void copyShouldKeepInsertionOrderAfterRemovals() {
+        LinkedIntSet original = new LinkedIntSet();
+        for (int i = 0; i < 100; i++) {
+            original.add(i * 7);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            original.remove(i * 7);
+        }
+
+        LinkedIntSet copy = new LinkedIntSet(original);
+
+        assertEquals(original.toString(), copy.toString());
+        assertEquals(50, copy.size());
+        assertTrue(copy.add(0), "Удалённый элемент можно добавить в копию снова");
+        assertFalse(copy.add(7));
+    }
+}